@@ -0,0 +1,10 @@
+-- 운영 DB 에 DBA 가 직접 실행하는 스크립트 (로컬 H2 는 ddl-auto 로 엔티티의 @Table(indexes) 가 그대로 생성됨)
+-- 적용 전에 중복된 계좌번호/거래 아이디가 없는지 먼저 확인해야 한다.
+--   select account_number, count(*) from account group by account_number having count(*) > 1;
+--   select transaction_id, count(*) from transaction group by transaction_id having count(*) > 1;
+
+create unique index uk_account_account_number
+    on account (account_number);
+
+create unique index uk_transaction_transaction_id
+    on transaction (transaction_id);
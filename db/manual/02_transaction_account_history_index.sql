@@ -0,0 +1,3 @@
+-- 계좌별 거래 내역 키셋 페이지 조회용 인덱스
+create index idx_transaction_account_at_id
+    on transaction (account_id, transaction_at, id);
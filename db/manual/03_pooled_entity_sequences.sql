@@ -0,0 +1,6 @@
+-- 엔티티별 pooled-lo 시퀀스 (increment 는 account.id.allocation_size 와 같아야 한다)
+-- 시작 값은 기존 hibernate_sequence 의 현재 값보다 크게 잡는다.
+--   select next value for hibernate_sequence;
+create sequence account_user_seq start with 1000000 increment by 50;
+create sequence account_seq start with 1000000 increment by 50;
+create sequence transaction_seq start with 1000000 increment by 50;
@@ -0,0 +1,2 @@
+-- Account 낙관적 락 버전 컬럼
+alter table account add column version bigint default 0 not null;
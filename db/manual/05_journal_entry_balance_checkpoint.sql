@@ -0,0 +1,42 @@
+-- 잔액 분개(append-only)와 체크포인트
+-- 분개는 계좌 단위로 분할할 수 있도록 외래키를 두지 않는다.
+-- 분할 시 (account_id, sequence) 를 기본키로 쓰고 account_id 해시로 나눈다.
+--   예) PostgreSQL: create table journal_entry (...) partition by hash (account_id);
+alter table account add column journal_sequence bigint default 0 not null;
+
+create sequence journal_entry_seq start with 1 increment by 50;
+create sequence balance_checkpoint_seq start with 1 increment by 50;
+
+create table journal_entry
+(
+    id             bigint       not null primary key,
+    account_id     bigint       not null,
+    sequence       bigint       not null,
+    direction      varchar(255) not null,
+    amount         bigint       not null,
+    balance_after  bigint       not null,
+    transaction_id varchar(255),
+    created_at     timestamp,
+    updated_at     timestamp
+);
+
+create unique index uk_journal_entry_account_sequence
+    on journal_entry (account_id, sequence);
+
+create table balance_checkpoint
+(
+    id         bigint not null primary key,
+    account_id bigint not null,
+    sequence   bigint not null,
+    balance    bigint not null,
+    created_at timestamp,
+    updated_at timestamp
+);
+
+create unique index uk_balance_checkpoint_account_sequence
+    on balance_checkpoint (account_id, sequence);
+
+-- 기존 잔액은 분개가 없으므로 순번 0 의 체크포인트로 시작한다
+insert into balance_checkpoint (id, account_id, sequence, balance, created_at, updated_at)
+select next value for balance_checkpoint_seq, id, 0, balance, now(), now()
+from account;
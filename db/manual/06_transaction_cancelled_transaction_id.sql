@@ -0,0 +1,6 @@
+-- 취소 거래가 가리키는 원거래 아이디. 원거래마다 취소는 한 번만 가능하다
+-- (null 은 중복으로 보지 않으므로 사용/실패 거래에는 영향이 없다)
+alter table transaction add column cancelled_transaction_id varchar(255);
+
+create unique index uk_transaction_cancelled_transaction_id
+    on transaction (cancelled_transaction_id);
@@ -0,0 +1,29 @@
+-- 거래 아이디를 32자리 UUID 문자열에서 시간순 64비트 정수로 바꾼다.
+-- 기존 행은 엔티티 아이디로 채운다. 새 아이디는 2024-01-01 이후 ms 를 22비트 올린 값이라
+-- 엔티티 아이디와 겹치지 않는다. 기존 문자열 아이디는 legacy_transaction_id 에 남긴다.
+drop index uk_transaction_transaction_id;
+drop index uk_transaction_cancelled_transaction_id;
+
+alter table transaction rename column transaction_id to legacy_transaction_id;
+alter table transaction rename column cancelled_transaction_id to legacy_cancelled_transaction_id;
+alter table transaction add column transaction_id bigint;
+alter table transaction add column cancelled_transaction_id bigint;
+
+update transaction set transaction_id = id;
+update transaction t set cancelled_transaction_id = (
+    select o.id from transaction o
+    where o.legacy_transaction_id = t.legacy_cancelled_transaction_id)
+where t.legacy_cancelled_transaction_id is not null;
+
+alter table transaction alter column transaction_id set not null;
+
+create unique index uk_transaction_transaction_id
+    on transaction (transaction_id);
+create unique index uk_transaction_cancelled_transaction_id
+    on transaction (cancelled_transaction_id);
+
+alter table journal_entry add column transaction_no bigint;
+update journal_entry j set transaction_no = (
+    select t.id from transaction t where t.legacy_transaction_id = j.transaction_id);
+alter table journal_entry drop column transaction_id;
+alter table journal_entry rename column transaction_no to transaction_id;
@@ -0,0 +1,32 @@
+-- 취소 가능 기간이 지난 거래의 보관 테이블 (TransactionArchiveService 가 월 단위로 옮긴다)
+-- 아이디는 원래 거래의 아이디를 그대로 쓰므로 시퀀스가 없다.
+-- 운영 DB 가 지원하면 transaction 을 월 단위 범위 파티션으로 나누고 보관이 끝난 달은
+-- 파티션을 통째로 떼어낼 수 있다.
+--   예) PostgreSQL: create table transaction (...) partition by range (transaction_at);
+--       create table transaction_2024_01 partition of transaction
+--           for values from ('2024-01-01') to ('2024-02-01');
+--   보관 테이블은 압축 저장소에 둔다 (예: MySQL row_format=compressed, PostgreSQL TOAST/cstore)
+create index idx_transaction_transaction_at
+    on transaction (transaction_at);
+
+create table transaction_archive
+(
+    id                       bigint       not null primary key,
+    transaction_type         varchar(255),
+    transaction_result_type  varchar(255),
+    account_id               bigint       not null,
+    account_number           varchar(255),
+    amount                   bigint       not null,
+    balance_snapshot         bigint       not null,
+    transaction_id           bigint       not null,
+    cancelled_transaction_id bigint,
+    transaction_at           timestamp,
+    archive_month            integer      not null,
+    archived_at              timestamp
+);
+
+create unique index uk_transaction_archive_transaction_id
+    on transaction_archive (transaction_id);
+
+create index idx_transaction_archive_month
+    on transaction_archive (archive_month);
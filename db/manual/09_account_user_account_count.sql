@@ -0,0 +1,9 @@
+-- 사용자별 개설 계좌 수. 계좌 개설 시 조건부 UPDATE 로 한도 확인과 증가를 함께 한다.
+-- 해지된 계좌도 한도에 포함되므로 기존 계좌를 상태와 관계없이 센다.
+-- 이 UPDATE 는 실행되는 DB 의 account 만 센다. 샤딩 환경에서는 0번 샤드의 값이
+-- 자기 샤드의 계좌 수뿐이므로, 배포 후 AccountCountBackfillService 로 모든 샤드의 합을 채운다
+-- (account.account-count.backfill-on-startup=true 로 한 번 기동하거나 backfill() 을 호출).
+alter table account_user add column account_count int default 0 not null;
+
+update account_user u set account_count = (
+    select count(*) from account a where a.account_user_id = u.id);
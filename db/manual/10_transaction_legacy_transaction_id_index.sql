@@ -0,0 +1,9 @@
+-- 07 스크립트 이전에 발급된 32자리 아이디로도 조회/취소할 수 있도록 legacy_transaction_id 에 인덱스를 둔다.
+-- 보관 테이블에도 같은 컬럼을 두어 보관된 옛 거래를 찾을 수 있게 한다
+create index idx_transaction_legacy_transaction_id
+    on transaction (legacy_transaction_id);
+
+alter table transaction_archive add column legacy_transaction_id varchar(255);
+
+create index idx_transaction_archive_legacy_transaction_id
+    on transaction_archive (legacy_transaction_id);
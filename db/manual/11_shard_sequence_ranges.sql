@@ -0,0 +1,10 @@
+-- 샤딩 배포 단계: 샤드마다 엔티티 시퀀스 구간을 나눠 아이디가 샤드 간에 겹치지 않게 한다.
+-- 계좌 목록 캐시(ownerByAccountId)와 분개/체크포인트의 account_id 는 샤드 간에 유일하다고 가정한다.
+-- N 번 샤드에서 :start 를 N * 1000000000000 으로 바꿔 한 번 실행한다 (0번 샤드는 실행하지 않는다).
+-- 구간 크기는 ShardDataSourceConfig.SEQUENCE_RANGE_PER_SHARD 와 같다.
+--   예) 1번 샤드: :start = 1000000000000
+alter sequence account_user_seq restart with :start;
+alter sequence account_seq restart with :start;
+alter sequence transaction_seq restart with :start;
+alter sequence journal_entry_seq restart with :start;
+alter sequence balance_checkpoint_seq restart with :start;
@@ -0,0 +1,48 @@
+package com.example.account.benchmark;
+
+import com.example.account.dto.TransactionIds;
+import com.example.account.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 거래 아이디 발급 비용 비교.
+ * uuid 는 이전 방식(UUID 문자열에서 '-' 제거), snowflake 는 TransactionIdGenerator 이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionIdBenchmark {
+
+    private final TransactionIdGenerator generator = new TransactionIdGenerator();
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    public long snowflake() {
+        return generator.nextId();
+    }
+
+    // 응답 DTO 로 내보낼 때의 변환까지 포함
+    @Benchmark
+    public String snowflakeFormatted() {
+        return TransactionIds.format(generator.nextId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidContended() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long snowflakeContended() {
+        return generator.nextId();
+    }
+}
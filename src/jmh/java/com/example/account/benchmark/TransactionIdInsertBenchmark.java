@@ -0,0 +1,85 @@
+package com.example.account.benchmark;
+
+import com.example.account.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 유니크 인덱스가 걸린 transaction_id 컬럼에 행을 추가하는 비용 비교.
+ * uuid 는 varchar(32) 에 무작위 위치로, snowflake 는 bigint 에 항상 끝에 추가된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionIdInsertBenchmark {
+
+    private static final int PRELOADED_ROWS = 500_000;
+    private static final int ROWS = 1000;
+
+    @Param({"uuid", "snowflake"})
+    private String idType;
+
+    private final TransactionIdGenerator generator = new TransactionIdGenerator();
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:id_insert_" + idType, "sa", "");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table transaction (" +
+                    "id bigint primary key, " +
+                    "amount bigint, " +
+                    "transaction_id " + (isUuid() ? "varchar(32)" : "bigint") + ")");
+            statement.execute("create unique index uk_transaction_transaction_id " +
+                    "on transaction (transaction_id)");
+        }
+
+        insert = connection.prepareStatement("insert into transaction values (?, ?, ?)");
+        connection.setAutoCommit(false);
+
+        // 인덱스 깊이가 운영과 비슷하도록 미리 채운다
+        for (int i = 0; i < PRELOADED_ROWS / ROWS; i++) {
+            insertRows();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        insert.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() throws SQLException {
+        insertRows();
+    }
+
+    private void insertRows() throws SQLException {
+        for (int i = 0; i < ROWS; i++) {
+            insert.setLong(1, nextId++);
+            insert.setLong(2, 1000L);
+            if (isUuid()) {
+                insert.setString(3, UUID.randomUUID().toString().replace("-", ""));
+            } else {
+                insert.setLong(3, generator.nextId());
+            }
+            insert.addBatch();
+        }
+
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private boolean isUuid() {
+        return "uuid".equals(idType);
+    }
+}
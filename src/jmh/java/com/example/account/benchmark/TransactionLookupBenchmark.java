@@ -0,0 +1,96 @@
+package com.example.account.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * transaction_id 유니크 인덱스 유무에 따른 단건 조회 지연시간 비교.
+ * 대량의 거래 내역이 쌓인 H2 테이블을 대상으로 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionLookupBenchmark {
+
+    private static final int SAMPLE_SIZE = 10_000;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+    private String[] sampleTransactionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:lookup_" + rows + "_" + indexed, "sa", "");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table transaction (" +
+                    "id bigint primary key, " +
+                    "account_id bigint, " +
+                    "amount bigint, " +
+                    "transaction_id varchar(255))");
+        }
+
+        sampleTransactionIds = new String[SAMPLE_SIZE];
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into transaction values (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                String transactionId =
+                        UUID.randomUUID().toString().replace("-", "");
+                if (i % (rows / SAMPLE_SIZE) == 0 && i / (rows / SAMPLE_SIZE) < SAMPLE_SIZE) {
+                    sampleTransactionIds[i / (rows / SAMPLE_SIZE)] = transactionId;
+                }
+
+                insert.setLong(1, i);
+                insert.setLong(2, i % 1000);
+                insert.setLong(3, 1000L);
+                insert.setString(4, transactionId);
+                insert.addBatch();
+
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        if (indexed) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create unique index uk_transaction_transaction_id " +
+                        "on transaction (transaction_id)");
+            }
+        }
+
+        lookup = connection.prepareStatement(
+                "select id, account_id, amount from transaction where transaction_id = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        lookup.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long findByTransactionId() throws SQLException {
+        lookup.setString(1, sampleTransactionIds[
+                ThreadLocalRandom.current().nextInt(SAMPLE_SIZE)]);
+
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1L;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 -> TransactionDTO -> 응답 DTO 변환 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionDtoBenchmark {
+
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        Account account = Account.builder()
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(9000L)
+                .build();
+
+        transaction = Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(account)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(481_923_744_366_120_960L)
+                .transactionAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public UseBalance.Response useBalanceResponse() {
+        return UseBalance.Response.from(TransactionDTO.fromEntity(transaction));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.account.repository;
+
+import com.example.account.AccountApplication;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.service.AccountService;
+import com.example.account.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.TransactionResultType.SUCCESS;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * 거래 내역 대량 저장 처리량(건/초).
+ * before 는 배치와 아이디 선할당을 끈 설정, after 는 application.yml 의 설정이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransactionInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"before", "after"})
+    private String setting;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private TransactionIdGenerator transactionIdGenerator;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean batched = "after".equals(setting);
+
+        context = new SpringApplicationBuilder(AccountApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + (batched ? 100 : 0),
+                        "spring.jpa.properties.hibernate.order_inserts=" + batched,
+                        "spring.jpa.properties.account.id.allocation_size=" + (batched ? 50 : 1),
+                        "logging.level.root=WARN")
+                .run();
+
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionIdGenerator = context.getBean(TransactionIdGenerator.class);
+
+        String accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, 0L)
+                .getAccountNumber();
+        account = context.getBean(AccountRepository.class)
+                .findByAccountNumber(accountNumber)
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveAll() {
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(Transaction.builder()
+                    .transactionType(USE)
+                    .transactionResultType(SUCCESS)
+                    .account(account)
+                    .amount(10L)
+                    .balanceSnapshot(0L)
+                    .transactionId(transactionIdGenerator.nextId())
+                    .transactionAt(LocalDateTime.now())
+                    .build());
+        }
+
+        transactionTemplate.executeWithoutResult(
+                status -> transactionRepository.saveAll(transactions));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.account.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 계좌번호 생성(매번 Random 생성 + String.format)과
+ * 순번 + Feistel 순열 방식의 번호 포맷 비용 비교.
+ * 두 방식 모두 DB/Redis 호출은 제외했다(기존 방식은 시도마다 DB 조회가 추가된다).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccountNumberBenchmark {
+
+    private static final long KEY = 7046029254386353131L;
+
+    private long sequence;
+
+    @Benchmark
+    public String legacyRandomFormat() {
+        Random random = new Random();
+        long randomNumber = random.nextLong(10000000000L);
+
+        return String.format("%010d", randomNumber);
+    }
+
+    @Benchmark
+    public String sequencePermutation() {
+        return AccountNumberService.toAccountNumber(sequence++, KEY);
+    }
+}
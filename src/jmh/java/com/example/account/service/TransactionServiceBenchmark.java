@@ -0,0 +1,68 @@
+package com.example.account.service;
+
+import com.example.account.AccountApplication;
+import com.example.account.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잔액 사용/취소를 실제 스프링 컨텍스트(H2 + 내장 Redis)에서 끝까지 수행하는 벤치마크.
+ * 락, 캐시, JPA 트랜잭션 비용이 모두 포함된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionServiceBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private AccountNumberService accountNumberService;
+    private String accountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        transactionService = context.getBean(TransactionService.class);
+        accountNumberService = context.getBean(AccountNumberService.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(USER_ID, 1_000_000_000_000L)
+                .getAccountNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDTO useBalance() {
+        return transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+    }
+
+    @Benchmark
+    public TransactionDTO useAndCancelBalance() {
+        TransactionDTO used = transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+
+        return transactionService.cancelBalance(
+                used.getTransactionId(), accountNumber, AMOUNT);
+    }
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return accountNumberService.generateAccountNumber();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidServiceBenchmark {
+
+    private ValidService validService;
+    private Account account;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        // 사용/취소 검증은 DB 를 사용하지 않는다
+        validService = new ValidService();
+
+        AccountUser accountUser = new AccountUser();
+        accountUser.setId(1L);
+
+        account = Account.builder()
+                .accountUser(accountUser)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10_000L)
+                .build();
+        account.setId(1L);
+
+        transaction = Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(account)
+                .amount(1000L)
+                .transactionAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public void validateUseBalance() {
+        validService.validateUseBalance(1L, account, 1000L);
+    }
+
+    @Benchmark
+    public void validateCancelBalance() {
+        validService.validateCancelBalance(transaction, account, 1000L);
+    }
+}
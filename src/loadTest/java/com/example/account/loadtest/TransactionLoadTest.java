@@ -0,0 +1,166 @@
+package com.example.account.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 실행 중인 서버에 /transaction/use 를 동시에 보내 지연 시간 분포와
+ * 서버가 동시에 처리 중이던 요청 수를 출력한다.
+ * 처리 중 요청 수는 실행 중에 서버의 account.web.in_flight 게이지(/actuator/metrics)를
+ * 주기적으로 읽은 최댓값이다. 클라이언트는 동시 요청 수로 묶여 있으므로 클라이언트 쪽 값은 쓰지 않는다.
+ * execution-mode 별로 서버를 띄워 같은 인자로 돌린 뒤 결과를 비교한다.
+ * virtual 은 JDK 21 로 서버를 띄워야 하며 실험용이다 (WebExecutorConfig 참고).
+ * <pre>
+ * ./gradlew bootRun --args='--account.web.execution-mode=virtual'
+ * ./gradlew loadTest -PloadTestArgs="http://localhost:8080 200 20000 10"
+ * </pre>
+ * 인자: baseUrl, 동시 요청 수, 전체 요청 수, 사용할 계좌 수
+ */
+public class TransactionLoadTest {
+
+    private static final Pattern ACCOUNT_NUMBER = Pattern.compile("\"accountNumber\":\"(\\d{10})\"");
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\":([0-9.Ee+-]+)");
+    private static final String IN_FLIGHT_METRIC = "/actuator/metrics/account.web.in_flight";
+    private static final long SAMPLE_INTERVAL = 50L;
+    private static final long USER_ID = 1L;
+    private static final long AMOUNT = 10L;
+
+    public static void main(String[] args) throws Exception {
+
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int accounts = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> accountNumbers = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers.add(createAccount(client, baseUrl, USER_ID + i / 10));
+        }
+
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger serverMaxInFlight = new AtomicInteger(-1);
+        AtomicInteger errors = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleWithFixedDelay(
+                () -> sampleInFlight(client, baseUrl, serverMaxInFlight),
+                0L, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        long started = System.nanoTime();
+
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+
+            String body = "{\"userId\":" + (USER_ID + (i % accounts) / 10)
+                    + ",\"accountNumber\":\"" + accountNumbers.get(i % accounts)
+                    + "\",\"amount\":" + AMOUNT + "}";
+            long sent = System.nanoTime();
+
+            futures.add(client.sendAsync(post(baseUrl + "/transaction/use", body),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, throwable) -> {
+                        latencies.add(System.nanoTime() - sent);
+                        if (throwable != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        permits.release();
+                    }));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(throwable -> null)
+                .join();
+
+        long elapsed = System.nanoTime() - started;
+        sampler.shutdownNow();
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+
+        System.out.printf("requests=%d concurrency=%d errors=%d%n",
+                requests, concurrency, errors.get());
+        System.out.printf("throughput=%.1f req/s server-max-in-flight=%s%n",
+                requests / (elapsed / 1e9),
+                serverMaxInFlight.get() < 0 ? "n/a" : serverMaxInFlight.get());
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    private static String createAccount(
+            HttpClient client, String baseUrl, long userId
+    ) throws Exception {
+
+        HttpResponse<String> response = client.send(
+                post(baseUrl + "/create-account",
+                        "{\"userId\":" + userId + ",\"initialBalance\":1000000000}"),
+                HttpResponse.BodyHandlers.ofString());
+
+        Matcher matcher = ACCOUNT_NUMBER.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("create account failed: " + response.body());
+        }
+
+        return matcher.group(1);
+    }
+
+    // 서버 게이지를 읽어 최댓값을 남긴다. 읽지 못하면 n/a 로 출력된다
+    private static void sampleInFlight(
+            HttpClient client, String baseUrl, AtomicInteger serverMaxInFlight
+    ) {
+
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + IN_FLIGHT_METRIC))
+                            .timeout(Duration.ofSeconds(1))
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            Matcher matcher = METRIC_VALUE.matcher(response.body());
+            if (response.statusCode() == 200 && matcher.find()) {
+                serverMaxInFlight.accumulateAndGet(
+                        (int) Double.parseDouble(matcher.group(1)), Math::max);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 샘플 하나를 놓쳐도 부하 테스트는 계속한다
+        }
+    }
+
+    private static HttpRequest post(String url, String body) {
+
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.account.aop;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.annotation.Annotation;
+
+final class AccountKeys {
+
+    private AccountKeys() {
+    }
+
+    static String resolve(JoinPoint joinPoint) {
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Annotation[][] parameterAnnotations =
+                signature.getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof AccountKey) {
+                    return String.valueOf(args[i]);
+                }
+            }
+        }
+
+        throw new IllegalStateException(
+                "@AccountKey parameter not found: " + signature.toShortString());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.account.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 계좌번호 단위 분산 락.
+ * 메소드 파라미터 중 {@link AccountKey} 가 붙은 계좌번호로 락을 잡는다.
+ * 시간 값은 밀리초이며, 음수면 account.lock.* 설정값을 사용한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AccountLock {
+
+    long tryLockTime() default -1L;
+
+    long leaseTime() default -1L;
+}
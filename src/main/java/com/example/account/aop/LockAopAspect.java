@@ -0,0 +1,42 @@
+package com.example.account.aop;
+
+import com.example.account.service.LockService;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 트랜잭션 커밋 이후에 락이 풀리도록 @Transactional 보다 바깥에서 동작한다.
+ * 락 대기 시간이 서비스 시간에 잡히도록 {@link MetricsAspect} 바로 안쪽에 둔다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class LockAopAspect {
+
+    private final LockService lockService;
+
+    @Around("@annotation(accountLock)")
+    public Object aroundMethod(
+            ProceedingJoinPoint pjp, AccountLock accountLock
+    ) throws Throwable {
+
+        Lock lock = lockService.lock(
+                AccountKeys.resolve(pjp),
+                accountLock.tryLockTime(),
+                accountLock.leaseTime());
+
+        try {
+            return pjp.proceed();
+        } finally {
+            lockService.unlock(lock);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.account.aop;
+
+import com.example.account.dto.BatchTransaction;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서비스 메소드 / 리포지토리 호출 시간과 API 결과(거래 성공·실패, 에러 코드)를 기록한다.
+ * 락 대기 시간까지 포함되도록 락 AOP 보다 바깥에서 동작한다.
+ * 히스토그램(버킷)은 management.metrics.distribution 설정으로 켠다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MetricsAspect {
+
+    static final String SERVICE_METRIC = "account.service";
+    static final String DB_METRIC = "account.db";
+    static final String ERROR_METRIC = "account.error";
+    static final String TRANSACTION_METRIC = "account.transaction";
+
+    private static final String SUCCESS = "SUCCESS";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(com.example.account.service.TransactionService) " +
+            "|| within(com.example.account.service.AccountService)")
+    public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+
+        try {
+            return pjp.proceed();
+        } catch (AccountException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer(SERVICE_METRIC,
+                    "class", pjp.getSignature().getDeclaringType().getSimpleName(),
+                    "method", pjp.getSignature().getName(),
+                    "outcome", outcome));
+        }
+    }
+
+    // 커밋 시점의 flush 는 포함되지 않는다
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        try {
+            return pjp.proceed();
+        } finally {
+            sample.stop(meterRegistry.timer(DB_METRIC,
+                    "repository", repositoryName(pjp.getThis()),
+                    "method", pjp.getSignature().getName()));
+        }
+    }
+
+    @Around("within(com.example.account.controller..*)")
+    public Object countResult(ProceedingJoinPoint pjp) throws Throwable {
+
+        Object response;
+
+        try {
+            response = pjp.proceed();
+        } catch (AccountException e) {
+            meterRegistry.counter(ERROR_METRIC,
+                    "code", e.getErrorCode().name()).increment();
+
+            TransactionType transactionType = transactionType(pjp.getArgs());
+            if (transactionType != null) {
+                countTransaction(transactionType, TransactionResultType.FAIL);
+            }
+            throw e;
+        }
+
+        if (response instanceof UseBalance.Response) {
+            countTransaction(TransactionType.USE,
+                    ((UseBalance.Response) response).getTransactionResult());
+        } else if (response instanceof CancelBalance.Response) {
+            countTransaction(TransactionType.CANCEL,
+                    ((CancelBalance.Response) response).getTransactionResult());
+        } else if (response instanceof BatchTransaction.Response) {
+            for (BatchTransaction.Result result
+                    : ((BatchTransaction.Response) response).getResults()) {
+                countTransaction(result.getTransactionType(), result.getTransactionResult());
+                if (result.getErrorCode() != null) {
+                    meterRegistry.counter(ERROR_METRIC,
+                            "code", result.getErrorCode().name()).increment();
+                }
+            }
+        }
+
+        return response;
+    }
+
+    private void countTransaction(
+            TransactionType transactionType, TransactionResultType transactionResultType
+    ) {
+
+        meterRegistry.counter(TRANSACTION_METRIC,
+                "type", transactionType.name(),
+                "result", transactionResultType.name()).increment();
+    }
+
+    private static TransactionType transactionType(Object[] args) {
+
+        for (Object arg : args) {
+            if (arg instanceof UseBalance.Request) {
+                return TransactionType.USE;
+            }
+            if (arg instanceof CancelBalance.Request) {
+                return TransactionType.CANCEL;
+            }
+        }
+
+        return null;
+    }
+
+    private static String repositoryName(Object proxy) {
+
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(proxy);
+
+        return interfaces.length == 0
+                ? proxy.getClass().getSimpleName()
+                : interfaces[0].getSimpleName();
+    }
+}
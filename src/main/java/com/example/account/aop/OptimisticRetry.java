@@ -0,0 +1,17 @@
+package com.example.account.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌(버전 불일치) 시 메소드를 새 트랜잭션으로 다시 실행한다.
+ * maxAttempts 는 첫 실행을 포함한 횟수이며, 음수면 account.retry.max-attempts 설정값을 사용한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+
+    int maxAttempts() default -1;
+}
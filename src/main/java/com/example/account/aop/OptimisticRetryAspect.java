@@ -0,0 +1,85 @@
+package com.example.account.aop;
+
+import com.example.account.exception.AccountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_CONCURRENT_UPDATE;
+
+/**
+ * 매 시도가 새 트랜잭션이 되도록 @Transactional 보다 바깥,
+ * 락 안쪽에서 동작한다.
+ * 재시도 간격은 지수적으로 늘어나는 상한 안에서 무작위로 고른다(full jitter).
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    private static final String RETRY_METRIC = "account.optimistic_lock.retry";
+    private static final String CONFLICT_METRIC = "account.optimistic_lock.conflict";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.retry.max-attempts:3}")
+    private int defaultMaxAttempts;
+
+    @Value("${account.retry.backoff:20}")
+    private long backoff;
+
+    @Value("${account.retry.max-backoff:200}")
+    private long maxBackoff;
+
+    @Around("@annotation(optimisticRetry)")
+    public Object aroundMethod(
+            ProceedingJoinPoint pjp, OptimisticRetry optimisticRetry
+    ) throws Throwable {
+
+        int maxAttempts = optimisticRetry.maxAttempts() < 0
+                ? defaultMaxAttempts : optimisticRetry.maxAttempts();
+        String method = pjp.getSignature().getName();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return pjp.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                log.warn("optimistic lock conflict: method={}, account={}, attempt={}/{}",
+                        method, AccountKeys.resolve(pjp), attempt, maxAttempts);
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(CONFLICT_METRIC, "method", method).increment();
+                    throw new AccountException(ACCOUNT_CONCURRENT_UPDATE);
+                }
+
+                meterRegistry.counter(RETRY_METRIC, "method", method).increment();
+                sleep(attempt);
+            }
+        }
+    }
+
+    private void sleep(int attempt) {
+
+        long bound = Math.min(maxBackoff, backoff << (attempt - 1));
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ACCOUNT_CONCURRENT_UPDATE);
+        }
+    }
+}
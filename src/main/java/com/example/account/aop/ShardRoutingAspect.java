@@ -0,0 +1,38 @@
+package com.example.account.aop;
+
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link AccountKey} 파라미터가 있는 서비스 메소드를 그 계좌의 샤드에서 실행한다.
+ * 커넥션을 얻기 전에 샤드가 정해지도록 @Transactional 보다 바깥에서 동작한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    @Around("execution(* com.example.account.service..*(.., " +
+            "@com.example.account.aop.AccountKey (*), ..))")
+    public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+
+        Integer previous = ShardContext.enter(
+                shardRouter.resolve(AccountKeys.resolve(pjp)));
+
+        try {
+            return pjp.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
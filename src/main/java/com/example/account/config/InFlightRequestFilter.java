@@ -0,0 +1,51 @@
+package com.example.account.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 서버가 동시에 처리 중인 요청 수를 account.web.in_flight 게이지로 내보낸다.
+ * virtual 모드에서는 Tomcat 스레드 풀 지표가 의미가 없으므로 execution-mode 를 비교할 때 이 값을 본다.
+ * 지표 조회 요청(/actuator)은 세지 않는다.
+ */
+@Component
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "account.web.in_flight";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // 컨트롤러 슬라이스 테스트처럼 레지스트리가 없는 경우에는 세기만 한다
+    public InFlightRequestFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> Gauge.builder(METRIC, inFlight, AtomicInteger::get)
+                .register(registry));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+}
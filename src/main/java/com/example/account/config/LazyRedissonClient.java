@@ -0,0 +1,109 @@
+package com.example.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.client.RedisException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redisson 은 만들 때 Redis 에 접속하므로 Redis 가 내려가 있으면 애플리케이션이 뜨지 않는다.
+ * 처음 쓰는 시점까지 생성을 미루고, 접속에 실패하면 reconnect-interval 동안은 다시 시도하지 않고
+ * {@link RedisConnectionException} 을 던져 호출하는 쪽의 Redis 장애 처리로 넘긴다.
+ */
+@Slf4j
+final class LazyRedissonClient implements InvocationHandler {
+
+    private final Supplier<RedissonClient> factory;
+    private final long reconnectIntervalNanos;
+
+    private volatile RedissonClient delegate;
+    private long nextAttemptAt = System.nanoTime();
+
+    private LazyRedissonClient(Supplier<RedissonClient> factory, long reconnectInterval) {
+        this.factory = factory;
+        this.reconnectIntervalNanos = TimeUnit.MILLISECONDS.toNanos(reconnectInterval);
+    }
+
+    static RedissonClient create(Supplier<RedissonClient> factory, long reconnectInterval) {
+
+        return (RedissonClient) Proxy.newProxyInstance(
+                RedissonClient.class.getClassLoader(),
+                new Class<?>[]{RedissonClient.class},
+                new LazyRedissonClient(factory, reconnectInterval));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeOnProxy(proxy, method, args);
+        }
+
+        // 한 번도 접속하지 않았으면 종료할 것이 없다
+        if (delegate == null) {
+            switch (method.getName()) {
+                case "shutdown":
+                    return null;
+                case "isShutdown":
+                case "isShuttingDown":
+                    return false;
+                default:
+                    break;
+            }
+        }
+
+        try {
+            return method.invoke(client(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private RedissonClient client() {
+
+        RedissonClient client = delegate;
+        if (client != null) {
+            return client;
+        }
+
+        synchronized (this) {
+            if (delegate != null) {
+                return delegate;
+            }
+            if (System.nanoTime() - nextAttemptAt < 0) {
+                throw new RedisConnectionException("redis unavailable, waiting to reconnect");
+            }
+
+            try {
+                delegate = factory.get();
+                log.info("redisson connected");
+                return delegate;
+            } catch (RuntimeException e) {
+                nextAttemptAt = System.nanoTime() + reconnectIntervalNanos;
+                log.error("redisson connect failed, retrying in {}ms",
+                        TimeUnit.NANOSECONDS.toMillis(reconnectIntervalNanos), e);
+                throw e instanceof RedisException
+                        ? e : new RedisConnectionException("redisson connect failed", e);
+            }
+        }
+    }
+
+    private static Object invokeOnProxy(Object proxy, Method method, Object[] args) {
+
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "LazyRedissonClient@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.account.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import redis.embedded.RedisServer;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
+// 로컬/테스트 전용, 운영(prod 프로필)에서는 account.redis.embedded=false 로 끈다
 @Configuration
+@ConditionalOnProperty(name = "account.redis.embedded", havingValue = "true", matchIfMissing = true)
 public class LocalRedisConfig {
 
     @Value("${spring.redis.port}")
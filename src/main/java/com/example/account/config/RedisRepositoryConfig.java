@@ -2,11 +2,22 @@ package com.example.account.config;
 
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.SentinelServersConfig;
+import org.redisson.config.SingleServerConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+
+/**
+ * account.redis.mode 에 따라 단일 서버, sentinel, cluster 중 하나로 접속한다.
+ * sentinel / cluster 는 account.redis.nodes 에 host:port 목록을 넣는다.
+ * 타임아웃과 재시도는 짧게 두고, Redis 장애는 LockService 의 로컬 락으로 넘긴다.
+ * 접속은 처음 쓸 때 하므로 Redis 가 내려가 있어도 기동한다 ({@link LazyRedissonClient}).
+ */
 @Configuration
 public class RedisRepositoryConfig {
 
@@ -16,11 +27,106 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
+    @Value("${account.redis.mode:single}")
+    private String mode;
+
+    @Value("${account.redis.nodes:}")
+    private String[] nodes;
+
+    @Value("${account.redis.sentinel-master:mymaster}")
+    private String sentinelMaster;
+
+    @Value("${account.redis.password:}")
+    private String password;
+
+    @Value("${account.redis.connection-pool-size:64}")
+    private int connectionPoolSize;
+
+    @Value("${account.redis.connection-minimum-idle-size:24}")
+    private int connectionMinimumIdleSize;
+
+    @Value("${account.redis.connect-timeout:1000}")
+    private int connectTimeout;
+
+    @Value("${account.redis.timeout:1000}")
+    private int timeout;
+
+    @Value("${account.redis.retry-attempts:1}")
+    private int retryAttempts;
+
+    @Value("${account.redis.retry-interval:200}")
+    private int retryInterval;
+
+    @Value("${account.redis.ping-interval:1000}")
+    private int pingInterval;
+
+    @Value("${account.redis.reconnect-interval:5000}")
+    private long reconnectInterval;
+
     @Bean
     public RedissonClient redissonClient() {
         Config config = new Config();
-        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
 
-        return Redisson.create(config);
+        switch (mode) {
+            case "sentinel":
+                SentinelServersConfig sentinel = config.useSentinelServers()
+                        .setMasterName(sentinelMaster)
+                        .addSentinelAddress(addresses())
+                        .setMasterConnectionPoolSize(connectionPoolSize)
+                        .setMasterConnectionMinimumIdleSize(connectionMinimumIdleSize)
+                        .setConnectTimeout(connectTimeout)
+                        .setTimeout(timeout)
+                        .setRetryAttempts(retryAttempts)
+                        .setRetryInterval(retryInterval)
+                        .setPingConnectionInterval(pingInterval);
+                if (!password.isEmpty()) {
+                    sentinel.setPassword(password);
+                }
+                break;
+            case "cluster":
+                ClusterServersConfig cluster = config.useClusterServers()
+                        .addNodeAddress(addresses())
+                        .setMasterConnectionPoolSize(connectionPoolSize)
+                        .setMasterConnectionMinimumIdleSize(connectionMinimumIdleSize)
+                        .setConnectTimeout(connectTimeout)
+                        .setTimeout(timeout)
+                        .setRetryAttempts(retryAttempts)
+                        .setRetryInterval(retryInterval)
+                        .setPingConnectionInterval(pingInterval);
+                if (!password.isEmpty()) {
+                    cluster.setPassword(password);
+                }
+                break;
+            case "single":
+                SingleServerConfig single = config.useSingleServer()
+                        .setAddress("redis://" + redisHost + ":" + redisPort)
+                        .setConnectionPoolSize(connectionPoolSize)
+                        .setConnectionMinimumIdleSize(connectionMinimumIdleSize)
+                        .setConnectTimeout(connectTimeout)
+                        .setTimeout(timeout)
+                        .setRetryAttempts(retryAttempts)
+                        .setRetryInterval(retryInterval)
+                        .setPingConnectionInterval(pingInterval);
+                if (!password.isEmpty()) {
+                    single.setPassword(password);
+                }
+                break;
+            default:
+                throw new IllegalStateException("unknown account.redis.mode: " + mode);
+        }
+
+        return LazyRedissonClient.create(() -> Redisson.create(config), reconnectInterval);
+    }
+
+    private String[] addresses() {
+
+        if (nodes.length == 0) {
+            throw new IllegalStateException("account.redis.nodes is required for " + mode);
+        }
+
+        return Arrays.stream(nodes)
+                .map(String::trim)
+                .map(node -> node.startsWith("redis") ? node : "redis://" + node)
+                .toArray(String[]::new);
     }
 }
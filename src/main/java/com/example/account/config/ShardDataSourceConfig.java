@@ -0,0 +1,102 @@
+package com.example.account.config;
+
+import com.example.account.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * account.shard.urls 의 DB 들을 계좌 샤드로 사용한다.
+ * 스키마와 기초 데이터(data.sql)는 0번 샤드에 만들어지므로, 로컬 H2 에서는
+ * (account.shard.replicate-schema=true) 기동 직후 0번 샤드의 스크립트를 나머지 샤드에 그대로 복사한다.
+ * 시퀀스는 샤드마다 구간을 나눠 엔티티 아이디가 샤드 간에 겹치지 않게 한다.
+ * 운영 DB 에서는 복사하지 않으며, 배포 시 db/manual/11 스크립트로 샤드마다 같은 구간을 잡아야 한다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.shard.enabled", havingValue = "true")
+public class ShardDataSourceConfig {
+
+    // db/manual/11_shard_sequence_ranges.sql 의 구간과 같아야 한다
+    private static final long SEQUENCE_RANGE_PER_SHARD = 1_000_000_000_000L;
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    @Value("${account.shard.urls}")
+    private String[] urls;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.hikari.connection-timeout:30000}")
+    private long connectionTimeout;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties) {
+
+        List<DataSource> shards = new ArrayList<>(urls.length);
+
+        for (String url : urls) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            shard.setMaximumPoolSize(maximumPoolSize);
+            shard.setConnectionTimeout(connectionTimeout);
+            shards.add(shard);
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "account.shard.replicate-schema", havingValue = "true")
+    public SmartInitializingSingleton shardSchemaReplicator(DataSource dataSource) {
+
+        return () -> {
+            // SCRIPT 와 시퀀스 재시작은 H2 에서만 안전하다
+            for (String url : urls) {
+                if (!url.trim().startsWith(H2_URL_PREFIX)) {
+                    log.warn("schema replication is for H2 shards only, skipped: {}", url.trim());
+                    return;
+                }
+            }
+
+            ShardRoutingDataSource routingDataSource = (ShardRoutingDataSource)
+                    ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+            List<DataSource> shards = routingDataSource.getShards();
+
+            List<String> script = new JdbcTemplate(shards.get(0))
+                    .queryForList("SCRIPT", String.class);
+
+            for (int shard = 1; shard < shards.size(); shard++) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.get(shard));
+                script.forEach(jdbcTemplate::execute);
+
+                long start = shard * SEQUENCE_RANGE_PER_SHARD;
+                jdbcTemplate.queryForList(
+                                "select sequence_name from information_schema.sequences",
+                                String.class)
+                        .forEach(sequence -> jdbcTemplate.execute(
+                                "alter sequence " + sequence + " restart with " + start));
+            }
+
+            log.info("schema replicated to {} shards", shards.size() - 1);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * account.web.execution-mode 로 요청 처리 스레드를 고른다.
+ * <ul>
+ *     <li>platform: Tomcat 기본 스레드 풀 (server.tomcat.threads.* 로 크기 조절)</li>
+ *     <li>virtual: (실험용) 요청마다 가상 스레드. JDK 21 이상에서 실행할 때만, 아니면 platform 으로 동작</li>
+ * </ul>
+ * 어느 쪽이든 동시에 DB 를 쓰는 요청 수는 Hikari 풀 크기로 제한된다.
+ * <p>
+ * virtual 은 비교 측정용이고 운영에서 쓰지 않는다. 빌드(Java 11, Gradle 7.4)와
+ * Spring Boot 2.6 은 JDK 21 을 지원하지 않아 JDK 21 에서 띄우는 것 자체가 검증되지 않았고,
+ * JDK 21 의 가상 스레드는 synchronized 안에서 블로킹하면 캐리어 스레드를 붙잡는다
+ * (Hikari, JDBC 드라이버 내부 등). 운영에서 쓰려면 다음 순서로 올린다.
+ * <ol>
+ *     <li>Gradle wrapper 8.5 이상, toolchain 을 21 로</li>
+ *     <li>Spring Boot 3.2 이상 (Java 17+, javax.* 를 jakarta.* 로, Hibernate 6 의
+ *     쿼리 힌트/시퀀스 설정 확인, Redisson 을 Boot 3 지원 버전으로)</li>
+ *     <li>이 설정 대신 spring.threads.virtual.enabled=true 를 쓰고 이 클래스의 virtual 분기를 지운다</li>
+ *     <li>-Djdk.tracePinnedThreads=short 로 부하 테스트를 돌려 고정되는 구간을 확인한다</li>
+ * </ol>
+ */
+@Slf4j
+@Configuration
+public class WebExecutorConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "account.web.execution-mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutorCustomizer() {
+
+        Executor executor = newVirtualThreadExecutor();
+
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    // 11 로 컴파일하므로 JDK 21 API 는 리플렉션으로 부른다
+    private static Executor newVirtualThreadExecutor() {
+
+        try {
+            Executor executor = (Executor) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.warn("tomcat requests run on virtual threads (experimental, "
+                    + "spring boot 2.6 is not supported on JDK 21)");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual threads need JDK 21+ (running {}), using the tomcat thread pool",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
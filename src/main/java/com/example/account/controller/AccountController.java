@@ -10,7 +10,6 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -48,12 +47,7 @@ public class AccountController {
     @GetMapping("/account/{userId}")
     public List<AccountInfo> getAccount(@PathVariable long userId) {
 
-        return accountService.getAccount(userId).stream()
-                .map(accountDTO -> AccountInfo.builder()
-                        .accountNumber(accountDTO.getAccountNumber())
-                        .balance(accountDTO.getBalance())
-                        .build())
-                .collect(Collectors.toList());
+        return accountService.getAccount(userId);
     }
 
     @GetMapping("/get-lock")
@@ -1,38 +1,173 @@
 package com.example.account.controller;
 
+import com.example.account.dto.BatchTransaction;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.QueryTransactionResponse;
+import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionHistory;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.service.FailedTransactionRecorder;
+import com.example.account.service.IdempotencyService;
+import com.example.account.service.LedgerService;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
+import com.example.account.type.ExportFormat;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final LedgerService ledgerService;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final TransactionExportService transactionExportService;
+    private final IdempotencyService idempotencyService;
+
+    // true 면 락 없이 조건부 UPDATE 로 차감한다
+    @Value("${account.transaction.atomic-debit:false}")
+    private boolean atomicDebit;
 
     @PostMapping("/transaction/use")
     public UseBalance.Response useBalance(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody UseBalance.Request request
     ) {
 
+        return idempotencyService.execute(
+                idempotencyKey,
+                "use",
+                request.getUserId() + ":" + request.getAccountNumber()
+                        + ":" + request.getAmount(),
+                UseBalance.Response.class,
+                () -> processUseBalance(request));
+    }
+
+    @PostMapping("/transaction/cancel")
+    public CancelBalance.Response cancelBalance(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+
+        return idempotencyService.execute(
+                idempotencyKey,
+                "cancel",
+                request.getTransactionId() + ":" + request.getAccountNumber()
+                        + ":" + request.getAmount(),
+                CancelBalance.Response.class,
+                () -> processCancelBalance(request));
+    }
+
+    @PostMapping("/transaction/batch")
+    public BatchTransaction.Response batchTransaction(
+            @Valid @RequestBody BatchTransaction.Request request
+    ) {
+
+        return new BatchTransaction.Response(
+                transactionService.batchTransaction(request.getItems()));
+    }
+
+    @GetMapping("/transaction/{transactionId}")
+    public QueryTransactionResponse queryTransactionResponse(
+            @PathVariable String transactionId
+    ) {
+
+        return QueryTransactionResponse.from(
+                transactionService.queryTransaction(transactionId));
+    }
+
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistory.Response queryTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) TransactionType transactionType,
+            @RequestParam(required = false) TransactionResultType transactionResult
+    ) {
+
+        return TransactionHistory.Response.from(
+                transactionService.queryTransactionHistory(
+                        accountNumber, cursor, size,
+                        transactionType, transactionResult));
+    }
+
+    @GetMapping("/transaction/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+
+        if (!from.isBefore(to)) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+
+        String fileName = "transactions." + format.name().toLowerCase()
+                + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                transactionExportService.export(from, to, format, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                transactionExportService.export(from, to, format, outputStream);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportMediaType(format, gzip))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    private static MediaType exportMediaType(ExportFormat format, boolean gzip) {
+
+        if (gzip) {
+            return MediaType.parseMediaType("application/gzip");
+        }
+
+        return format == ExportFormat.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+    }
+
+    private UseBalance.Response processUseBalance(UseBalance.Request request) {
+
         try {
-            return UseBalance.Response.from(
-                    transactionService.useBalance(
-                            request.getUserId(),
-                            request.getAccountNumber(),
-                            request.getAmount()));
+            return UseBalance.Response.from(doUseBalance(
+                    request.getUserId(),
+                    request.getAccountNumber(),
+                    request.getAmount()));
         } catch (AccountException e) {
-            log.error("잔액 사용 실패");
+            log.error("잔액 사용 실패: {}", e.getErrorCode());
 
-            transactionService.saveFailedUseTransaction(
+            failedTransactionRecorder.record(
+                    USE,
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -41,21 +176,18 @@ public class TransactionController {
         }
     }
 
-    @PostMapping("/transaction/cancel")
-    public CancelBalance.Response cancelBalance(
-            @Valid @RequestBody CancelBalance.Request request
-    ) {
+    private CancelBalance.Response processCancelBalance(CancelBalance.Request request) {
 
         try {
-            return CancelBalance.Response.from(
-                    transactionService.cancelBalance(
-                            request.getTransactionId(),
-                            request.getAccountNumber(),
-                            request.getAmount()));
+            return CancelBalance.Response.from(doCancelBalance(
+                    request.getTransactionId(),
+                    request.getAccountNumber(),
+                    request.getAmount()));
         } catch (AccountException e) {
-            log.error("잔액 사용 실패");
+            log.error("잔액 사용 취소 실패: {}", e.getErrorCode());
 
-            transactionService.saveFailedCancelTransaction(
+            failedTransactionRecorder.record(
+                    CANCEL,
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -64,12 +196,28 @@ public class TransactionController {
         }
     }
 
-    @GetMapping("/transaction/{transactionId}")
-    public QueryTransactionResponse queryTransactionResponse(
-            @PathVariable String transactionId
+    private TransactionDTO doUseBalance(
+            long userId, String accountNumber, long amount
     ) {
 
-        return QueryTransactionResponse.from(
-                transactionService.queryTransaction(transactionId));
+        if (ledgerService.isManaged(accountNumber)) {
+            return ledgerService.useBalance(userId, accountNumber, amount);
+        }
+        if (atomicDebit) {
+            return transactionService.useBalanceAtomically(userId, accountNumber, amount);
+        }
+
+        return transactionService.useBalance(userId, accountNumber, amount);
+    }
+
+    private TransactionDTO doCancelBalance(
+            String transactionId, String accountNumber, long amount
+    ) {
+
+        if (ledgerService.isManaged(accountNumber)) {
+            return ledgerService.cancelBalance(transactionId, accountNumber, amount);
+        }
+
+        return transactionService.cancelBalance(transactionId, accountNumber, amount);
     }
 }
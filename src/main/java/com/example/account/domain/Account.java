@@ -15,10 +15,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = Account.ACCOUNT_NUMBER_INDEX,
+                columnList = "accountNumber", unique = true)
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Account extends BaseEntity {
 
-    @ManyToOne
+    public static final String ACCOUNT_NUMBER_INDEX = "uk_account_account_number";
+
+    @ManyToOne(fetch = FetchType.LAZY)
     private AccountUser accountUser;
 
     private String accountNumber;
@@ -28,6 +34,12 @@ public class Account extends BaseEntity {
 
     private long balance;
 
+    @Version
+    private long version;
+
+    // balance 에 반영된 마지막 분개 순번
+    private long journalSequence;
+
     private LocalDateTime registeredAt;
 
     private LocalDateTime unRegisteredAt;
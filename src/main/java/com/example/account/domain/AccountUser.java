@@ -15,4 +15,8 @@ import javax.persistence.*;
 public class AccountUser extends BaseEntity {
 
     private String username;
+
+    // 해지된 계좌도 포함한 개설 계좌 수. 샤딩 시에는 0번 샤드의 값만 쓴다
+    // (모든 샤드의 합은 AccountCountBackfillService 가 채운다)
+    private int accountCount;
 }
@@ -0,0 +1,29 @@
+package com.example.account.domain;
+
+import lombok.*;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+
+/**
+ * 특정 분개 순번까지 반영된 계좌 잔액.
+ * 잔액 재계산은 마지막 체크포인트 이후의 분개만 더하면 된다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = {
+        @Index(name = "uk_balance_checkpoint_account_sequence",
+                columnList = "accountId, sequence", unique = true)
+})
+@EntityListeners(AuditingEntityListener.class)
+public class BalanceCheckpoint extends BaseEntity {
+
+    private long accountId;
+
+    private long sequence;
+
+    private long balance;
+}
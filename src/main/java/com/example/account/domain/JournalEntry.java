@@ -0,0 +1,41 @@
+package com.example.account.domain;
+
+import com.example.account.type.JournalDirection;
+import lombok.*;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+
+/**
+ * 계좌 잔액 변경 분개(append-only). 계좌별 sequence 는 1 부터 빈틈없이 증가한다.
+ * 계좌 단위로 분할할 수 있도록 계좌와 거래는 외래키 없이 값으로만 가진다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = {
+        @Index(name = "uk_journal_entry_account_sequence",
+                columnList = "accountId, sequence", unique = true)
+})
+@EntityListeners(AuditingEntityListener.class)
+public class JournalEntry extends BaseEntity {
+
+    private long accountId;
+
+    private long sequence;
+
+    @Enumerated(EnumType.STRING)
+    private JournalDirection direction;
+
+    private long amount;
+
+    private long balanceAfter;
+
+    private Long transactionId;
+
+    public long signedAmount() {
+        return direction == JournalDirection.CREDIT ? amount : -amount;
+    }
+}
@@ -14,24 +14,48 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_transaction_transaction_id",
+                columnList = "transactionId", unique = true),
+        // 취소 거래만 값을 가지며, 같은 거래를 두 번 취소할 수 없다
+        @Index(name = Transaction.CANCELLED_TRANSACTION_ID_INDEX,
+                columnList = "cancelledTransactionId", unique = true),
+        @Index(name = "idx_transaction_account_at_id",
+                columnList = "account_id, transactionAt, id"),
+        // 기간 내보내기와 보관 대상 조회용
+        @Index(name = "idx_transaction_transaction_at",
+                columnList = "transactionAt"),
+        @Index(name = "idx_transaction_legacy_transaction_id",
+                columnList = "legacyTransactionId")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction extends BaseEntity {
 
+    public static final String CANCELLED_TRANSACTION_ID_INDEX =
+            "uk_transaction_cancelled_transaction_id";
+
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
 
     private long amount;
 
     private long balanceSnapshot;
 
-    private String transactionId;
+    // 시간순 64비트 아이디, API 에는 TransactionIds 로 바꿔서 내보낸다
+    private long transactionId;
+
+    // 취소 거래인 경우 원거래의 transactionId
+    private Long cancelledTransactionId;
 
     private LocalDateTime transactionAt;
 
+    // db/manual/07 적용 이전에 발급된 32자리 아이디, 이후 거래는 null
+    private String legacyTransactionId;
+
 }
@@ -0,0 +1,86 @@
+package com.example.account.domain;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 취소 가능 기간이 지나 hot 테이블에서 옮겨진 거래 (읽기 전용).
+ * 계좌번호를 함께 저장해 조회 시 account 와 조인하지 않는다.
+ * 아이디는 원래 거래의 아이디를 그대로 쓴다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(indexes = {
+        @Index(name = "uk_transaction_archive_transaction_id",
+                columnList = "transactionId", unique = true),
+        @Index(name = "idx_transaction_archive_month",
+                columnList = "archiveMonth"),
+        @Index(name = "idx_transaction_archive_legacy_transaction_id",
+                columnList = "legacyTransactionId")
+})
+public class TransactionArchive implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+
+    private long accountId;
+
+    private String accountNumber;
+
+    private long amount;
+
+    private long balanceSnapshot;
+
+    private long transactionId;
+
+    private Long cancelledTransactionId;
+
+    private LocalDateTime transactionAt;
+
+    private String legacyTransactionId;
+
+    // 거래 월 (yyyyMM), 월 단위로 옮기고 지우는 기준
+    private int archiveMonth;
+
+    private LocalDateTime archivedAt;
+
+    public static TransactionArchive from(Transaction transaction, LocalDateTime archivedAt) {
+
+        return TransactionArchive.builder()
+                .id(transaction.getId())
+                .transactionType(transaction.getTransactionType())
+                .transactionResultType(transaction.getTransactionResultType())
+                .accountId(transaction.getAccount().getId())
+                .accountNumber(transaction.getAccount().getAccountNumber())
+                .amount(transaction.getAmount())
+                .balanceSnapshot(transaction.getBalanceSnapshot())
+                .transactionId(transaction.getTransactionId())
+                .cancelledTransactionId(transaction.getCancelledTransactionId())
+                .transactionAt(transaction.getTransactionAt())
+                .legacyTransactionId(transaction.getLegacyTransactionId())
+                .archiveMonth(transaction.getTransactionAt().getYear() * 100
+                        + transaction.getTransactionAt().getMonthValue())
+                .archivedAt(archivedAt)
+                .build();
+    }
+
+    // 아이디를 직접 넣으므로 저장 전에 존재 여부를 조회하지 않도록 항상 새 엔티티로 본다
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.account.dto;
+
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+/**
+ * 잔액 검증에 필요한 계좌 컬럼만 읽는 조회 결과.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountBalance {
+
+    private final long accountId;
+    private final long ownerId;
+    private final AccountStatus accountStatus;
+    private final long balance;
+    private final long journalSequence;
+}
@@ -0,0 +1,14 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+/**
+ * 한 샤드에서 센 사용자별 계좌 수 (해지된 계좌 포함).
+ */
+@Getter
+@AllArgsConstructor
+public class AccountCount {
+
+    private final long userId;
+    private final long count;
+}
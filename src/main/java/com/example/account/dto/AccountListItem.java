@@ -0,0 +1,30 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+/**
+ * 사용자별 계좌 목록 캐시에 올리는 계좌 한 건.
+ * 잔액은 분개 순번과 함께 들고 있어, 늦게 도착한 변경이 최신 값을 덮지 않게 한다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountListItem {
+
+    private final long accountId;
+    private final String accountNumber;
+    private final long balance;
+    private final long journalSequence;
+
+    public AccountListItem withBalance(long balance, long journalSequence) {
+        return new AccountListItem(accountId, accountNumber, balance, journalSequence);
+    }
+
+    public AccountInfo toAccountInfo() {
+
+        return AccountInfo.builder()
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import lombok.*;
+
+/**
+ * 캐시에 올리는 계좌의 변하지 않는(또는 해지 시에만 바뀌는) 정보.
+ * 잔액은 포함하지 않는다.
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class AccountSummary {
+
+    private final long accountId;
+    private final long ownerId;
+    private final AccountStatus accountStatus;
+
+    public static AccountSummary fromEntity(Account account) {
+
+        return AccountSummary.builder()
+                .accountId(account.getId())
+                .ownerId(account.getAccountUser().getId())
+                .accountStatus(account.getAccountStatus())
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.account.dto;
+
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BatchTransaction {
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+
+        @NotEmpty
+        @Size(max = 1000)
+        private List<@Valid Item> items;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+
+        @NotNull
+        private TransactionType transactionType;
+
+        // USE 일 때 사용
+        private long userId;
+
+        // CANCEL 일 때 사용
+        private String transactionId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String accountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(10_0000_0000) // 10억
+        private long amount;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Response {
+
+        private List<Result> results;
+
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Result {
+
+        private int index;
+        private String accountNumber;
+        private TransactionType transactionType;
+        private TransactionResultType transactionResult;
+        private String transactionId;
+        private long amount;
+        private LocalDateTime transactionAt;
+        private ErrorCode errorCode;
+
+        public static Result from(
+                int index, TransactionDTO transactionDTO, ErrorCode errorCode
+        ) {
+
+            return Result.builder()
+                    .index(index)
+                    .accountNumber(transactionDTO.getAccountNumber())
+                    .transactionType(transactionDTO.getTransactionType())
+                    .transactionResult(transactionDTO.getTransactionResultType())
+                    .transactionId(transactionDTO.getTransactionId())
+                    .amount(transactionDTO.getAmount())
+                    .transactionAt(transactionDTO.getTransactionAt())
+                    .errorCode(errorCode)
+                    .build();
+        }
+
+        public static Result fail(int index, Item item, ErrorCode errorCode) {
+
+            return Result.builder()
+                    .index(index)
+                    .accountNumber(item.getAccountNumber())
+                    .transactionType(item.getTransactionType())
+                    .transactionResult(TransactionResultType.FAIL)
+                    .amount(item.getAmount())
+                    .errorCode(errorCode)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FailedTransaction {
+
+    private TransactionType transactionType;
+    private String accountNumber;
+    private long amount;
+    private LocalDateTime failedAt;
+}
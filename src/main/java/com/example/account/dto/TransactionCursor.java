@@ -0,0 +1,47 @@
+package com.example.account.dto;
+
+import com.example.account.exception.AccountException;
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static com.example.account.type.ErrorCode.INVALID_REQUEST;
+
+/**
+ * 거래 내역 페이지 커서. 마지막으로 내려준 거래의 (transactionAt, id) 를 담는다.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+
+    // 첫 페이지는 가장 최근 거래부터 읽는다
+    public static final TransactionCursor FIRST = new TransactionCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime transactionAt;
+    private final long id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (transactionAt + "_" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8).split("_");
+
+            return new TransactionCursor(
+                    LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+    }
+}
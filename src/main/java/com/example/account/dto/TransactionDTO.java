@@ -1,6 +1,7 @@
 package com.example.account.dto;
 
 import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.*;
@@ -23,15 +24,34 @@ public class TransactionDTO {
     private LocalDateTime transactionAt;
 
     public static TransactionDTO fromEntity(Transaction transaction) {
+        return fromEntity(transaction, transaction.getAccount().getAccountNumber());
+    }
+
+    public static TransactionDTO fromEntity(
+            Transaction transaction, String accountNumber
+    ) {
 
         return TransactionDTO.builder()
-                .accountNumber(transaction.getAccount().getAccountNumber())
+                .accountNumber(accountNumber)
                 .transactionType(transaction.getTransactionType())
                 .transactionResultType(transaction.getTransactionResultType())
                 .amount(transaction.getAmount())
                 .balanceSnapshot(transaction.getBalanceSnapshot())
-                .transactionId(transaction.getTransactionId())
+                .transactionId(TransactionIds.format(transaction.getTransactionId()))
                 .transactionAt(transaction.getTransactionAt())
                 .build();
     }
+
+    public static TransactionDTO fromArchive(TransactionArchive archive) {
+
+        return TransactionDTO.builder()
+                .accountNumber(archive.getAccountNumber())
+                .transactionType(archive.getTransactionType())
+                .transactionResultType(archive.getTransactionResultType())
+                .amount(archive.getAmount())
+                .balanceSnapshot(archive.getBalanceSnapshot())
+                .transactionId(TransactionIds.format(archive.getTransactionId()))
+                .transactionAt(archive.getTransactionAt())
+                .build();
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TransactionHistory {
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+
+        private List<QueryTransactionResponse> transactions;
+        private String nextCursor;
+
+        public static Response from(TransactionHistoryDTO transactionHistoryDTO) {
+
+            return Response.builder()
+                    .transactions(transactionHistoryDTO.getTransactions().stream()
+                            .map(QueryTransactionResponse::from)
+                            .collect(Collectors.toList()))
+                    .nextCursor(transactionHistoryDTO.getNextCursor())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryDTO {
+
+    private List<TransactionDTO> transactions;
+    private String nextCursor;
+}
@@ -0,0 +1,92 @@
+package com.example.account.dto;
+
+import com.example.account.exception.AccountException;
+
+import java.util.Arrays;
+
+import static com.example.account.type.ErrorCode.TRANSACTION_NOT_FOUND;
+
+/**
+ * 거래 아이디(long)와 API 에 노출하는 13자리 Crockford base32 문자열 사이의 변환.
+ * 자릿수가 고정이라 문자열 순서도 발급 순서와 같다.
+ */
+public final class TransactionIds {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13;
+    private static final byte[] DECODE = new byte[128];
+    private static final int LEGACY_LENGTH = 32;
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // 헷갈리기 쉬운 문자는 같은 값으로 읽는다
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    private TransactionIds() {
+    }
+
+    public static String format(long transactionId) {
+
+        char[] chars = new char[LENGTH];
+        long value = transactionId;
+
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * db/manual/07 적용 이전에 발급된 32자리 UUID 문자열(소문자 16진수)인지 확인한다.
+     * 이런 아이디는 legacy_transaction_id 로 찾는다.
+     */
+    public static boolean isLegacy(String text) {
+
+        if (text == null || text.length() != LEGACY_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < LEGACY_LENGTH; i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 형식이 맞지 않는 아이디는 존재할 수 없으므로 거래 없음으로 처리한다.
+     */
+    public static long parse(String text) {
+
+        if (text == null || text.length() != LENGTH) {
+            throw new AccountException(TRANSACTION_NOT_FOUND);
+        }
+
+        long value = 0;
+
+        for (int i = 0; i < LENGTH; i++) {
+            char c = text.charAt(i);
+            int digit = c < DECODE.length ? DECODE[c] : -1;
+
+            // 첫 자리는 4비트만 쓰고, 부호 비트는 항상 0 이다
+            if (digit < 0 || (i == 0 && digit > 7)) {
+                throw new AccountException(TRANSACTION_NOT_FOUND);
+            }
+
+            value = value << 5 | digit;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.account.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * 위반한 제약 이름을 원인 예외에서 찾는다.
+     * 드라이버마다 이름을 주는 방식이 달라 이름이 없으면 메시지에서 찾는다.
+     */
+    public static boolean isViolationOf(
+            DataIntegrityViolationException e, String constraintName
+    ) {
+
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String name = cause instanceof ConstraintViolationException
+                    ? ((ConstraintViolationException) cause).getConstraintName()
+                    : cause.getMessage();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains(constraintName)) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+
+        return false;
+    }
+}
@@ -2,10 +2,21 @@ package com.example.account.repository;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.dto.AccountBalance;
+import com.example.account.dto.AccountCount;
+import com.example.account.dto.AccountListItem;
+import com.example.account.dto.AccountSummary;
+import com.example.account.type.AccountStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -15,9 +26,73 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     boolean existsByAccountNumber(String accountNumber);
 
-    int countByAccountUser(AccountUser accountUser);
-
     Optional<Account> findByAccountNumber(String accountNumber);
 
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    // 사용자 엔티티를 읽지 않고 외래키로만 찾는다
+    @Query("select new com.example.account.dto.AccountListItem(" +
+            "a.id, a.accountNumber, a.balance, a.journalSequence) " +
+            "from Account a where a.accountUser.id = :userId order by a.id")
+    List<AccountListItem> findListItemsByUserId(@Param("userId") long userId);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    // 이 샤드의 사용자별 계좌 수 (해지된 계좌 포함), 계좌 수 보정용
+    @Query("select new com.example.account.dto.AccountCount(" +
+            "a.accountUser.id, count(a)) " +
+            "from Account a group by a.accountUser.id")
+    List<AccountCount> countByUser();
+
+    @Query("select new com.example.account.dto.AccountCount(" +
+            "a.accountUser.id, count(a)) " +
+            "from Account a where a.accountUser.id in :userIds group by a.accountUser.id")
+    List<AccountCount> countByUserIn(@Param("userIds") Collection<Long> userIds);
+
+    // 소유주는 외래키 값만 읽으므로 account_user 조인 없이 한 번에 조회된다
+    @Query("select new com.example.account.dto.AccountSummary(" +
+            "a.id, a.accountUser.id, a.accountStatus) " +
+            "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountSummary> findSummaryByAccountNumber(
+            @Param("accountNumber") String accountNumber);
+
+    @Query("select new com.example.account.dto.AccountBalance(" +
+            "a.id, a.accountUser.id, a.accountStatus, a.balance, a.journalSequence) " +
+            "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountBalance> findBalanceByAccountNumber(
+            @Param("accountNumber") String accountNumber);
+
+    // 마지막 체크포인트 이후 분개가 interval 건 이상 쌓인 계좌
+    @Query("select new com.example.account.dto.AccountBalance(" +
+            "a.id, a.accountUser.id, a.accountStatus, a.balance, a.journalSequence) " +
+            "from Account a where a.journalSequence >= :interval + " +
+            "coalesce((select max(c.sequence) from BalanceCheckpoint c " +
+            "where c.accountId = a.id), 0)")
+    List<AccountBalance> findCheckpointTargets(
+            @Param("interval") long interval, Pageable pageable);
+
+    // 검증과 차감을 한 문장으로 처리한다. 0 이면 조건 중 하나가 맞지 않은 것
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, " +
+            "a.journalSequence = a.journalSequence + 1, " +
+            "a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.accountNumber = :accountNumber " +
+            "and a.accountUser.id = :userId " +
+            "and a.accountStatus = :status " +
+            "and a.balance >= :amount")
+    int debit(
+            @Param("accountNumber") String accountNumber,
+            @Param("userId") long userId,
+            @Param("status") AccountStatus status,
+            @Param("amount") long amount,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Account a set a.balance = :balance, " +
+            "a.journalSequence = :journalSequence, " +
+            "a.version = a.version + 1 where a.id = :id")
+    int updateBalance(
+            @Param("id") long id,
+            @Param("balance") long balance,
+            @Param("journalSequence") long journalSequence);
 }
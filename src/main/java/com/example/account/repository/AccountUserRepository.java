@@ -2,8 +2,38 @@ package com.example.account.repository;
 
 import com.example.account.domain.AccountUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AccountUserRepository extends JpaRepository<AccountUser, Long> {
+
+    // 한도 확인과 증가를 한 문장으로 처리한다. 0 이면 사용자가 없거나 한도에 걸린 것
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount + 1 " +
+            "where u.id = :id and u.accountCount < :max")
+    int incrementAccountCount(@Param("id") long id, @Param("max") int max);
+
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = u.accountCount - 1 " +
+            "where u.id = :id and u.accountCount > 0")
+    int decrementAccountCount(@Param("id") long id);
+
+    // 보정 값이 더 클 때만 바꾼다. 그 사이 개설로 늘어난 값은 줄이지 않는다
+    @Modifying
+    @Query("update AccountUser u set u.accountCount = :count " +
+            "where u.id = :id and u.accountCount < :count")
+    int raiseAccountCount(@Param("id") long id, @Param("count") int count);
+
+    // 계좌 수 보정 중에 개설이 끼어들지 않도록 사용자 행을 잠근다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from AccountUser u where u.id in :ids order by u.id")
+    List<AccountUser> lockByIdIn(@Param("ids") Collection<Long> ids);
 }
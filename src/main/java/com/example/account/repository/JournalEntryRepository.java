@@ -0,0 +1,34 @@
+package com.example.account.repository;
+
+import com.example.account.domain.JournalEntry;
+import com.example.account.type.JournalDirection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+
+    // (account_id, sequence) 인덱스 범위만 읽는다
+    @Query("select coalesce(sum(case when e.direction = :credit " +
+            "then e.amount else -e.amount end), 0) " +
+            "from JournalEntry e " +
+            "where e.accountId = :accountId and e.sequence > :sequence")
+    long sumAmountAfter(
+            @Param("accountId") long accountId,
+            @Param("sequence") long sequence,
+            @Param("credit") JournalDirection credit);
+
+    // (after, upTo] 구간의 분개 합, 체크포인트를 분개로부터 접어 만들 때 쓴다
+    @Query("select coalesce(sum(case when e.direction = :credit " +
+            "then e.amount else -e.amount end), 0) " +
+            "from JournalEntry e " +
+            "where e.accountId = :accountId " +
+            "and e.sequence > :after and e.sequence <= :upTo")
+    long sumAmountBetween(
+            @Param("accountId") long accountId,
+            @Param("after") long after,
+            @Param("upTo") long upTo,
+            @Param("credit") JournalDirection credit);
+}
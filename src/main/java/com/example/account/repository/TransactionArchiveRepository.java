@@ -0,0 +1,42 @@
+package com.example.account.repository;
+
+import com.example.account.domain.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@Repository
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, Long> {
+
+    Optional<TransactionArchive> findByTransactionId(long transactionId);
+
+    boolean existsByTransactionId(long transactionId);
+
+    Optional<TransactionArchive> findByLegacyTransactionId(String legacyTransactionId);
+
+    // 트랜잭션 안에서 사용하고, 다 읽은 뒤 반드시 닫아야 한다.
+    // 거래 시각에는 인덱스가 없으므로 거래 월 인덱스로 먼저 좁힌다
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select a from TransactionArchive a " +
+            "where a.archiveMonth between :fromMonth and :toMonth " +
+            "and a.transactionAt >= :from and a.transactionAt < :to " +
+            "order by a.transactionAt, a.id")
+    Stream<TransactionArchive> streamByTransactionAtBetween(
+            @Param("fromMonth") int fromMonth,
+            @Param("toMonth") int toMonth,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+}
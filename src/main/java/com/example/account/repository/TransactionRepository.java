@@ -1,13 +1,75 @@
 package com.example.account.repository;
 
 import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    Optional<Transaction> findByTransactionId(String transactionId);
+    Optional<Transaction> findByTransactionId(long transactionId);
+
+    // 응답에 계좌번호가 필요한 조회용
+    @EntityGraph(attributePaths = "account")
+    Optional<Transaction> findWithAccountByTransactionId(long transactionId);
+
+    // db/manual/07 적용 이전에 발급된 32자리 아이디로 조회
+    Optional<Transaction> findByLegacyTransactionId(String legacyTransactionId);
+
+    @EntityGraph(attributePaths = "account")
+    Optional<Transaction> findWithAccountByLegacyTransactionId(String legacyTransactionId);
+
+    boolean existsByCancelledTransactionId(long cancelledTransactionId);
+
+    // (account_id, transaction_at, id) 인덱스를 타는 키셋 페이지 조회
+    @Query("select t from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:resultType is null or t.transactionResultType = :resultType) " +
+            "and (t.transactionAt < :cursorAt " +
+            "or (t.transactionAt = :cursorAt and t.id < :cursorId)) " +
+            "order by t.transactionAt desc, t.id desc")
+    List<Transaction> findHistory(
+            @Param("accountId") long accountId,
+            @Param("transactionType") TransactionType transactionType,
+            @Param("resultType") TransactionResultType resultType,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") long cursorId,
+            Pageable pageable);
+
+    // 보관 대상, (transaction_at) 인덱스를 오래된 순으로 읽는다
+    @Query("select t from Transaction t join fetch t.account " +
+            "where t.transactionAt < :before " +
+            "order by t.transactionAt, t.id")
+    List<Transaction> findArchiveTargets(
+            @Param("before") LocalDateTime before,
+            Pageable pageable);
+
+    // 트랜잭션 안에서 사용하고, 다 읽은 뒤 반드시 닫아야 한다
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t from Transaction t join fetch t.account " +
+            "where t.transactionAt >= :from and t.transactionAt < :to " +
+            "order by t.transactionAt, t.id")
+    Stream<Transaction> streamByTransactionAtBetween(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,185 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountKey;
+import com.example.account.dto.AccountSummary;
+import com.example.account.repository.AccountRepository;
+import com.example.account.type.AccountStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌번호 -> {@link AccountSummary} 조회 캐시.
+ * 로컬(Caffeine) -> Redis -> DB 순으로 읽고, 해지 시 모든 노드의 로컬 캐시와
+ * Redis 를 함께 비운다. Redis 장애 시에는 DB 로 바로 내려간다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountCacheService {
+
+    private static final String REDIS_KEY_PREFIX = "account:summary:";
+    private static final String EVICT_TOPIC = "account:summary:evict";
+    private static final String REDIS_METRIC = "account.summary.redis";
+
+    private final AccountRepository accountRepository;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.cache.local-max-size:100000}")
+    private long localMaxSize;
+
+    @Value("${account.cache.local-ttl:30}")
+    private long localTtl;
+
+    @Value("${account.cache.redis-ttl:600}")
+    private long redisTtl;
+
+    private Cache<String, AccountSummary> localCache;
+    private volatile boolean subscribed;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "account.summary.local");
+
+        subscribe();
+    }
+
+    /**
+     * 기동할 때 Redis 가 내려가 있었으면 붙을 때까지 다시 구독한다.
+     * 그동안은 다른 노드의 해지/삭제를 받지 못해 로컬 캐시가 ttl 동안 늦을 수 있다.
+     */
+    @Scheduled(fixedDelayString = "${account.redis.reconnect-interval:5000}")
+    public void subscribe() {
+
+        if (subscribed) {
+            return;
+        }
+
+        try {
+            evictTopic().addListener(String.class,
+                    (channel, accountNumber) -> localCache.invalidate(accountNumber));
+            subscribed = true;
+        } catch (RedisException e) {
+            log.warn("account summary topic subscribe failed, retrying", e);
+        }
+    }
+
+    public Optional<AccountSummary> get(@AccountKey String accountNumber) {
+        return Optional.ofNullable(localCache.get(accountNumber, this::load));
+    }
+
+    /**
+     * 진행 중인 트랜잭션이 있으면 커밋 이후에 비운다.
+     */
+    public void evict(String accountNumber) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            evictNow(accountNumber);
+                        }
+                    });
+        } else {
+            evictNow(accountNumber);
+        }
+    }
+
+    private void evictNow(String accountNumber) {
+
+        localCache.invalidate(accountNumber);
+
+        try {
+            redisBucket(accountNumber).delete();
+            evictTopic().publish(accountNumber);
+        } catch (RedisException e) {
+            log.error("account summary redis evict failed: {}", accountNumber, e);
+        }
+    }
+
+    private AccountSummary load(String accountNumber) {
+
+        RBucket<String> bucket = redisBucket(accountNumber);
+
+        try {
+            String cached = bucket.get();
+            if (cached != null) {
+                meterRegistry.counter(REDIS_METRIC, "result", "hit").increment();
+                return decode(cached);
+            }
+            meterRegistry.counter(REDIS_METRIC, "result", "miss").increment();
+        } catch (RedisException e) {
+            meterRegistry.counter(REDIS_METRIC, "result", "error").increment();
+            return loadFromDatabase(accountNumber);
+        }
+
+        AccountSummary summary = loadFromDatabase(accountNumber);
+
+        if (summary != null) {
+            try {
+                bucket.set(encode(summary), redisTtl, TimeUnit.SECONDS);
+            } catch (RedisException e) {
+                meterRegistry.counter(REDIS_METRIC, "result", "error").increment();
+            }
+        }
+
+        return summary;
+    }
+
+    private AccountSummary loadFromDatabase(String accountNumber) {
+
+        return accountRepository.findSummaryByAccountNumber(accountNumber)
+                .orElse(null);
+    }
+
+    private RTopic evictTopic() {
+        return redissonClient.getTopic(EVICT_TOPIC, StringCodec.INSTANCE);
+    }
+
+    private RBucket<String> redisBucket(String accountNumber) {
+        return redissonClient.getBucket(
+                REDIS_KEY_PREFIX + accountNumber, StringCodec.INSTANCE);
+    }
+
+    private static String encode(AccountSummary summary) {
+        return summary.getAccountId() + ":"
+                + summary.getOwnerId() + ":"
+                + summary.getAccountStatus().name();
+    }
+
+    private static AccountSummary decode(String value) {
+
+        String[] parts = value.split(":");
+
+        return AccountSummary.builder()
+                .accountId(Long.parseLong(parts[0]))
+                .ownerId(Long.parseLong(parts[1]))
+                .accountStatus(AccountStatus.valueOf(parts[2]))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountCount;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * account_user.account_count 를 모든 샤드의 계좌 수 합으로 채운다.
+ * db/manual/09 스크립트는 샤드마다 자기 account 테이블만 세므로, 샤딩 환경에서는
+ * 0번 샤드의 값이 실제보다 작다. 배포 직후 한 번 실행한다.
+ * 처음 센 값은 대상 사용자를 고르는 데만 쓰고, 사용자 행을 잠근 0번 샤드 트랜잭션 안에서
+ * 모든 샤드를 다시 세어 반영한다. 개설은 같은 행을 갱신하므로 그동안 기다리고,
+ * 다시 세기 전에 끝난 개설은 다시 센 값에 들어 있으므로 보정 값에 묻히지 않는다.
+ * 값은 늘리기만 하므로 이미 늘어난 값을 줄이지 않는다.
+ * 다른 샤드에 계좌를 저장하는 중인 개설(계좌 수는 커밋, 계좌는 커밋 전)은 다시 센 값에 없으므로
+ * 그 사용자의 값이 하나 작아질 수 있다. 한 번만 도는 작업이고 구간이 짧아 허용한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountCountBackfillService {
+
+    // 사용자별 계좌 수를 관리하는 샤드
+    private static final int USER_SHARD = 0;
+
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.account-count.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Value("${account.account-count.backfill-batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (backfillOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * @return 계좌 수를 고친 사용자 수
+     */
+    public int backfill() {
+
+        Set<Long> userIds = new TreeSet<>();
+        shardRouter.fanOut(shard -> accountRepository.countByUser(), ShardRouter.NO_TIMEOUT)
+                .forEach(shardCounts -> shardCounts.forEach(
+                        accountCount -> userIds.add(accountCount.getUserId())));
+
+        List<Long> users = new ArrayList<>(userIds);
+        int updated = 0;
+
+        // 배치마다 커밋해 사용자 행을 오래 잠그지 않는다
+        for (int from = 0; from < users.size(); from += batchSize) {
+            List<Long> batch = users.subList(from, Math.min(from + batchSize, users.size()));
+
+            updated += ShardContext.call(USER_SHARD, () -> transactionTemplate.execute(
+                    status -> raiseLocked(batch)));
+        }
+
+        log.info("account count backfilled: users={}, updated={}", users.size(), updated);
+
+        return updated;
+    }
+
+    private int raiseLocked(List<Long> userIds) {
+
+        accountUserRepository.lockByIdIn(userIds);
+
+        Map<Long, Long> counts = new HashMap<>();
+        shardRouter.fanOut(shard -> accountRepository.countByUserIn(userIds),
+                        ShardRouter.NO_TIMEOUT)
+                .forEach(shardCounts -> shardCounts.forEach(accountCount -> counts.merge(
+                        accountCount.getUserId(), accountCount.getCount(), Long::sum)));
+
+        return counts.entrySet().stream()
+                .mapToInt(entry -> accountUserRepository.raiseAccountCount(
+                        entry.getKey(), entry.getValue().intValue()))
+                .sum();
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.account.service;
+
+import com.example.account.domain.JournalEntry;
+import com.example.account.dto.AccountListItem;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.shard.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 사용자 아이디 -> 계좌 목록(잔액 포함) 로컬 캐시.
+ * 계좌 개설/해지 시에는 모든 노드에서 비우고, 잔액 변경은 분개가 커밋된 뒤
+ * 목록 안의 해당 계좌만 바꾼다. 다른 노드에는 Redis 토픽으로 같은 변경을 보낸다.
+ * 분개 순번이 더 큰 변경만 반영하므로 순서가 뒤바뀌거나 두 번 와도 괜찮다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountListCacheService {
+
+    private static final String BALANCE_TOPIC = "account:list:balance";
+    private static final String EVICT_TOPIC = "account:list:evict";
+
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final ShardRouter shardRouter;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.cache.account-list-max-size:100000}")
+    private long localMaxSize;
+
+    @Value("${account.cache.account-list-ttl:60}")
+    private long localTtl;
+
+    private Cache<Long, List<AccountListItem>> localCache;
+    // 계좌 소유주는 바뀌지 않으므로 목록을 읽을 때 채워두고 분개를 사용자에 연결한다
+    private Cache<Long, Long> ownerByAccountId;
+    private volatile boolean subscribed;
+
+    @PostConstruct
+    public void init() {
+        long ttlNanos = Duration.ofSeconds(localTtl).toNanos();
+
+        // 잔액 반영은 만료 시간을 늘리지 않는다. 놓친 변경이 있어도 ttl 안에 다시 읽는다
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfter(new Expiry<Long, List<AccountListItem>>() {
+                    @Override
+                    public long expireAfterCreate(
+                            Long userId, List<AccountListItem> items, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(
+                            Long userId, List<AccountListItem> items,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(
+                            Long userId, List<AccountListItem> items,
+                            long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        ownerByAccountId = Caffeine.newBuilder()
+                .maximumSize(localMaxSize * 4)
+                .expireAfterWrite(Duration.ofSeconds(localTtl))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "account.list.local");
+
+        subscribe();
+    }
+
+    /**
+     * 기동할 때 Redis 가 내려가 있었으면 붙을 때까지 다시 구독한다.
+     * 그동안은 다른 노드의 변경을 받지 못해 로컬 캐시가 ttl 동안 늦을 수 있다.
+     */
+    @Scheduled(fixedDelayString = "${account.redis.reconnect-interval:5000}")
+    public void subscribe() {
+
+        if (subscribed) {
+            return;
+        }
+
+        try {
+            topic(BALANCE_TOPIC).addListener(String.class,
+                    (channel, message) -> applyRemote(message));
+            topic(EVICT_TOPIC).addListener(String.class,
+                    (channel, userId) -> localCache.invalidate(Long.parseLong(userId)));
+            subscribed = true;
+        } catch (RedisException e) {
+            log.warn("account list topic subscribe failed, retrying", e);
+        }
+    }
+
+    /**
+     * 사용자가 없으면 비어 있다. (없는 사용자는 캐시하지 않는다)
+     */
+    public Optional<List<AccountListItem>> get(long userId) {
+        return Optional.ofNullable(localCache.get(userId, this::load));
+    }
+
+    /**
+     * 계좌 개설/해지처럼 목록 자체가 바뀔 때. 진행 중인 트랜잭션이 있으면 커밋 이후에 비운다.
+     */
+    public void evict(long userId) {
+        afterCommit(() -> evictNow(userId));
+    }
+
+    /**
+     * 저장한 분개의 잔액을 커밋 이후 목록에 반영한다. 계좌마다 마지막 분개만 보낸다.
+     */
+    public void balanceChanged(Collection<JournalEntry> entries) {
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Collection<JournalEntry> latest = entries.stream()
+                .collect(Collectors.toMap(JournalEntry::getAccountId, entry -> entry,
+                        (a, b) -> a.getSequence() >= b.getSequence() ? a : b))
+                .values();
+
+        afterCommit(() -> latest.forEach(this::publishBalance));
+    }
+
+    private void afterCommit(Runnable action) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            action.run();
+                        }
+                    });
+        } else {
+            action.run();
+        }
+    }
+
+    private void evictNow(long userId) {
+
+        localCache.invalidate(userId);
+
+        try {
+            topic(EVICT_TOPIC).publish(String.valueOf(userId));
+        } catch (RedisException e) {
+            log.error("account list redis evict failed: {}", userId, e);
+        }
+    }
+
+    private void publishBalance(JournalEntry entry) {
+
+        apply(entry.getAccountId(), entry.getBalanceAfter(), entry.getSequence());
+
+        // 거래 응답을 Redis 왕복만큼 늦추지 않도록 비동기로 보낸다
+        try {
+            topic(BALANCE_TOPIC).publishAsync(entry.getAccountId() + ":"
+                    + entry.getSequence() + ":"
+                    + entry.getBalanceAfter());
+        } catch (RedisException e) {
+            log.error("account list redis publish failed: {}", entry.getAccountId(), e);
+        }
+    }
+
+    private RTopic topic(String name) {
+        return redissonClient.getTopic(name, StringCodec.INSTANCE);
+    }
+
+    private void applyRemote(String message) {
+
+        String[] parts = message.split(":");
+
+        apply(Long.parseLong(parts[0]),
+                Long.parseLong(parts[2]),
+                Long.parseLong(parts[1]));
+    }
+
+    void apply(long accountId, long balance, long journalSequence) {
+
+        Long userId = ownerByAccountId.getIfPresent(accountId);
+        if (userId == null) {
+            return;
+        }
+
+        localCache.asMap().computeIfPresent(userId, (id, items) -> items.stream()
+                .map(item -> item.getAccountId() == accountId
+                        && item.getJournalSequence() < journalSequence
+                        ? item.withBalance(balance, journalSequence) : item)
+                .collect(Collectors.collectingAndThen(
+                        Collectors.toList(), Collections::unmodifiableList)));
+    }
+
+    private List<AccountListItem> load(Long userId) {
+
+        // 사용자의 계좌는 여러 샤드에 나뉘어 있다
+        List<AccountListItem> items = shardRouter
+                .fanOut(shard -> accountRepository.findListItemsByUserId(userId))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        // 계좌가 하나도 없을 때만 사용자가 있는지 확인한다
+        if (items.isEmpty() && !accountUserRepository.existsById(userId)) {
+            return null;
+        }
+
+        Map<Long, Long> owners = items.stream()
+                .collect(Collectors.toMap(AccountListItem::getAccountId, item -> userId));
+        ownerByAccountId.putAll(owners);
+
+        return Collections.unmodifiableList(items);
+    }
+}
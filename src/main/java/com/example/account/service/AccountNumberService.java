@@ -1,31 +1,188 @@
 package com.example.account.service;
 
 import com.example.account.repository.AccountRepository;
-import lombok.AllArgsConstructor;
+import com.example.account.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import javax.annotation.PostConstruct;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Redis 시퀀스에서 번호 구간을 미리 할당받고, 각 순번을 10자리 공간 안에서
+ * 섞어(Feistel 순열) 계좌번호를 만든다. 순열은 전단사이므로 순번이 겹치지 않는 한
+ * 계좌번호도 겹치지 않아 DB 중복 조회가 필요 없다.
+ * permutation-key 를 바꾸면 기존 번호와 충돌할 수 있으므로 운영 중에는 바꾸지 않는다.
+ * Redis 가 비워져 순번이 되돌아가는 경우를 위해 시작할 때 순번이 이미 쓰인 구간을
+ * 가리키는지 확인하고, 그래도 겹치는 번호는 유니크 인덱스에 걸려 새 번호로 다시 만든다.
+ */
+@Slf4j
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class AccountNumberService {
 
+    private static final String SEQUENCE_KEY = "account:number:sequence";
+    private static final long ACCOUNT_NUMBER_SPACE = 10_000_000_000L;
+    private static final int HALF_SPACE = 100_000;
+    private static final int ROUNDS = 4;
+
+    private final RedissonClient redissonClient;
     private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+
+    @Value("${account.number.block-size:1000}")
+    private long blockSize;
+
+    @Value("${account.number.permutation-key:7046029254386353131}")
+    private long permutationKey;
+
+    // 가상 스레드에서 Redis 호출 중에 캐리어 스레드를 붙잡지 않도록 synchronized 대신 사용
+    private final ReentrantLock sequenceLock = new ReentrantLock();
+
+    private long nextSequence;
+    private long sequenceLimit;
 
     public String generateAccountNumber() {
-        Random random = new Random();
-        String newAccountNumber;
+        return toAccountNumber(nextSequence(), permutationKey);
+    }
+
+    /**
+     * 이번 번호가 이미 쓰였으면 남은 구간도 쓰였을 가능성이 높으므로
+     * 다음 번호는 새 구간에서 받는다.
+     */
+    public void skipBlock() {
+
+        sequenceLock.lock();
+
+        try {
+            nextSequence = sequenceLimit;
+        } finally {
+            sequenceLock.unlock();
+        }
+    }
+
+    /**
+     * Redis 순번이 가리키는 구간이 이미 쓰였으면 쓰이지 않은 첫 구간까지 올린다.
+     * 할당된 구간은 첫 번호부터 쓰이므로 구간 첫 번호만 조회해서 두 배씩 늘려가며 찾고
+     * 이분 탐색으로 좁힌다. 예전 무작위 번호가 구간 첫 번호와 겹칠 확률은 무시한다.
+     * Redis 나 DB 에 닿지 않으면 확인을 건너뛰고, 겹치는 번호는 생성 시 재시도로 처리한다.
+     */
+    @PostConstruct
+    void verifySequence() {
+
+        try {
+            RAtomicLong counter = redissonClient.getAtomicLong(SEQUENCE_KEY);
+            long floor = findUnusedBlock(counter.get() / blockSize) * blockSize;
+
+            long current;
+            while ((current = counter.get()) < floor) {
+                if (counter.compareAndSet(current, floor)) {
+                    log.warn("account number sequence was behind, raised {} -> {}",
+                            current, floor);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("account number sequence check skipped", e);
+        }
+    }
+
+    private long findUnusedBlock(long from) {
+
+        if (!isBlockUsed(from)) {
+            return from;
+        }
+
+        long used = from;
+        long unused = from + 1;
+        for (long step = 1; isBlockUsed(unused); step *= 2) {
+            used = unused;
+            unused = from + step * 2;
+        }
+
+        while (unused - used > 1) {
+            long middle = used + (unused - used) / 2;
+            if (isBlockUsed(middle)) {
+                used = middle;
+            } else {
+                unused = middle;
+            }
+        }
+
+        return unused;
+    }
+
+    private boolean isBlockUsed(long block) {
+
+        long sequence = block * blockSize;
+        if (sequence >= ACCOUNT_NUMBER_SPACE) {
+            return false;
+        }
+
+        String accountNumber = toAccountNumber(sequence, permutationKey);
+        return shardRouter.call(accountNumber,
+                () -> accountRepository.existsByAccountNumber(accountNumber));
+    }
 
-        do {
-            // 0에서 9,999,999,999까지의 숫자 생성 (10자리 숫자)
-            long randomNumber = random.nextLong(10000000000L);
+    private long nextSequence() {
+
+        sequenceLock.lock();
+
+        try {
+            if (nextSequence >= sequenceLimit) {
+                sequenceLimit = redissonClient.getAtomicLong(SEQUENCE_KEY)
+                        .addAndGet(blockSize);
+                nextSequence = sequenceLimit - blockSize;
+            }
+
+            if (nextSequence >= ACCOUNT_NUMBER_SPACE) {
+                throw new IllegalStateException("account number space exhausted");
+            }
+
+            return nextSequence++;
+        } finally {
+            sequenceLock.unlock();
+        }
+    }
 
-            // 10자리 숫자로 변환, 빈 자리에 0채우기
-            newAccountNumber = String.format("%010d", randomNumber);
+    static String toAccountNumber(long sequence, long key) {
+
+        int left = (int) (sequence / HALF_SPACE);
+        int right = (int) (sequence % HALF_SPACE);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            int mixed = (left + roundFunction(right, round, key)) % HALF_SPACE;
+            left = right;
+            right = mixed;
+        }
+
+        char[] digits = new char[10];
+        writeDigits(digits, 5, left);
+        writeDigits(digits, 10, right);
+
+        return new String(digits);
+    }
+
+    private static int roundFunction(int value, int round, long key) {
+
+        long z = value * 0x9E3779B97F4A7C15L + key + round;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+
+        return (int) Math.floorMod(z, (long) HALF_SPACE);
+    }
 
-            // 중복 체크
-        } while (accountRepository.existsByAccountNumber(newAccountNumber));
+    // end 바로 앞까지 5자리를 채운다, 빈 자리는 0
+    private static void writeDigits(char[] digits, int end, int value) {
 
-        return newAccountNumber;
+        for (int i = end - 1; i >= end - 5; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
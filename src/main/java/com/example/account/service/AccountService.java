@@ -1,14 +1,24 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountKey;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDTO;
+import com.example.account.dto.AccountInfo;
+import com.example.account.dto.AccountListItem;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.ConstraintViolations;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
 import com.example.account.type.AccountStatus;
+import com.example.account.type.JournalDirection;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
@@ -17,54 +27,136 @@ import java.util.stream.Collectors;
 
 import static com.example.account.type.ErrorCode.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AccountService {
 
+    // 사용자별 계좌 수를 관리하는 샤드
+    private static final int USER_SHARD = 0;
+
+    // 번호가 이미 쓰였으면 다음 번호 구간으로 넘어가서 다시 만든다
+    static final int MAX_ACCOUNT_NUMBER_ATTEMPTS = 3;
+
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountNumberService accountNumberService;
     private final ValidService validService;
-
-    @Transactional
+    private final AccountCacheService accountCacheService;
+    private final AccountListCacheService accountListCacheService;
+    private final JournalService journalService;
+    private final LedgerService ledgerService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Redis 순번이 초기화되거나 예전 무작위 번호와 겹치면 유니크 인덱스에 걸린다.
+     * 그 경우 늘려둔 계좌 수는 되돌려지므로 번호만 새로 받아 다시 시도한다.
+     */
     public AccountDTO createAccount(long userId, long initialBalance) {
 
-        AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+        for (int attempt = 1; ; attempt++) {
+            // 계좌번호로 샤드가 정해지므로 트랜잭션을 시작하기 전에 번호를 먼저 받는다
+            String newAccountNumber = accountNumberService.generateAccountNumber();
+
+            try {
+                return createAccount(userId, initialBalance, newAccountNumber);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ACCOUNT_NUMBER_ATTEMPTS
+                        || !ConstraintViolations.isViolationOf(e, Account.ACCOUNT_NUMBER_INDEX)) {
+                    throw e;
+                }
+                log.warn("account number already in use, retrying: {}", newAccountNumber);
+                accountNumberService.skipBlock();
+            }
+        }
+    }
 
-        validService.validateCreateAccount(accountUser);
+    private AccountDTO createAccount(
+            long userId, long initialBalance, String newAccountNumber
+    ) {
 
-        String newAccountNumber = accountNumberService.generateAccountNumber();
+        int shard = shardRouter.resolve(newAccountNumber);
 
-        return AccountDTO.fromEntity(
-                accountRepository.save(Account.builder()
-                        .accountUser(accountUser)
-                        .accountStatus(AccountStatus.IN_USE)
-                        .accountNumber(newAccountNumber)
-                        .balance(initialBalance)
-                        .registeredAt(LocalDateTime.now())
-                        .build()));
+        // 계좌 수는 0번 샤드의 사용자 행에 있으므로 같은 샤드면 한 트랜잭션으로 처리한다
+        if (shard == USER_SHARD) {
+            return ShardContext.call(shard, () -> transactionTemplate.execute(status -> {
+                reserveAccountSlot(userId);
+                return saveAccount(userId, initialBalance, newAccountNumber);
+            }));
+        }
+
+        ShardContext.run(USER_SHARD, () -> transactionTemplate.execute(status -> {
+            reserveAccountSlot(userId);
+            return null;
+        }));
+
+        try {
+            return ShardContext.call(shard, () -> transactionTemplate.execute(
+                    status -> saveAccount(userId, initialBalance, newAccountNumber)));
+        } catch (RuntimeException e) {
+            releaseAccountSlot(userId);
+            throw e;
+        }
     }
 
-    @Transactional
-    public List<AccountDTO> getAccount(long userId) {
+    private void reserveAccountSlot(long userId) {
 
-        if (userId < 0) {
-            throw new AccountException(USER_ID_MINUS);
+        if (accountUserRepository.incrementAccountCount(
+                userId, ValidService.MAX_ACCOUNT_PER_USER) == 0) {
+            throw new AccountException(accountUserRepository.existsById(userId)
+                    ? MAX_ACCOUNT_PER_USER_10 : USER_NOT_FOUND);
         }
+    }
 
-        AccountUser accountUser = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+    // 다른 샤드에 계좌를 저장하지 못했으면 늘려둔 계좌 수를 되돌린다
+    private void releaseAccountSlot(long userId) {
+
+        try {
+            ShardContext.run(USER_SHARD, () -> transactionTemplate.execute(
+                    status -> accountUserRepository.decrementAccountCount(userId)));
+        } catch (RuntimeException e) {
+            log.error("account count release failed: {}", userId, e);
+        }
+    }
+
+    private AccountDTO saveAccount(
+            long userId, long initialBalance, String newAccountNumber
+    ) {
+
+        // 사용자는 계좌 수를 늘리면서 확인했으므로 다시 읽지 않는다
+        Account account = accountRepository.save(Account.builder()
+                .accountUser(accountUserRepository.getById(userId))
+                .accountStatus(AccountStatus.IN_USE)
+                .accountNumber(newAccountNumber)
+                .balance(initialBalance)
+                .registeredAt(LocalDateTime.now())
+                .build());
+
+        // 초기 잔액도 분개로 남겨야 분개만으로 잔액을 다시 계산할 수 있다
+        if (initialBalance > 0) {
+            journalService.record(account, JournalDirection.CREDIT, initialBalance, null);
+        }
+        accountListCacheService.evict(userId);
 
-        List<Account> accounts = accountRepository.findByAccountUser(accountUser);
+        return AccountDTO.fromEntity(account);
+    }
+
+    public List<AccountInfo> getAccount(long userId) {
+
+        if (userId < 0) {
+            throw new AccountException(USER_ID_MINUS);
+        }
 
-        return accounts.stream()
-                .map(AccountDTO::fromEntity)
+        return accountListCacheService.get(userId)
+                .orElseThrow(() -> new AccountException(USER_NOT_FOUND))
+                .stream()
+                .map(AccountListItem::toAccountInfo)
                 .collect(Collectors.toList());
     }
 
     @Transactional
-    public AccountDTO deleteAccount(long userId, String accountNumber) {
+    public AccountDTO deleteAccount(long userId, @AccountKey String accountNumber) {
 
         AccountUser accountUser = accountUserRepository.findById(userId)
                 .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
@@ -75,6 +167,9 @@ public class AccountService {
 
         account.setAccountStatus(AccountStatus.UNREGISTERED);
         account.setUnRegisteredAt(LocalDateTime.now());
+        accountCacheService.evict(accountNumber);
+        accountListCacheService.evict(userId);
+        ledgerService.accountUnregistered(accountNumber);
 
         return AccountDTO.fromEntity(account);
     }
@@ -0,0 +1,67 @@
+package com.example.account.service;
+
+import com.example.account.type.AccountStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 인메모리 원장의 계좌별 잔액 셀.
+ * 잔액과 순번을 하나의 불변 상태로 묶어 CAS 로 교체한다.
+ */
+@Getter
+class BalanceCell {
+
+    private final long accountId;
+    private final long ownerId;
+    // 해지는 원장 밖(AccountService)에서 일어나므로 바뀔 수 있다
+    private volatile AccountStatus accountStatus;
+    private final AtomicReference<State> state;
+    private final AtomicLong flushedSequence;
+    // 기록에 계속 실패하는 동안에는 새 거래를 받지 않는다
+    private volatile boolean stalled;
+
+    // 순번은 계좌의 분개 순번에서 이어간다
+    BalanceCell(long accountId, long ownerId,
+                AccountStatus accountStatus, long balance, long journalSequence) {
+        this.accountId = accountId;
+        this.ownerId = ownerId;
+        this.accountStatus = accountStatus;
+        this.state = new AtomicReference<>(new State(balance, journalSequence));
+        this.flushedSequence = new AtomicLong(journalSequence);
+    }
+
+    void unregister() {
+        this.accountStatus = AccountStatus.UNREGISTERED;
+    }
+
+    void stall() {
+        this.stalled = true;
+    }
+
+    void resume() {
+        this.stalled = false;
+    }
+
+    State current() {
+        return state.get();
+    }
+
+    boolean compareAndSet(State expected, State next) {
+        return state.compareAndSet(expected, next);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class State {
+
+        private final long balance;
+        private final long sequence;
+
+        State apply(long delta) {
+            return new State(balance + delta, sequence + 1);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.account.service;
+
+import com.example.account.dto.FailedTransaction;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 실패 거래 기록을 요청 스레드 밖에서 모아서 저장한다.
+ * 큐가 가득 차면 잠시 기다린 뒤, 그래도 자리가 없으면 요청 스레드에서 직접 저장한다.
+ * 종료 시에는 큐에 남은 기록을 모두 저장한 뒤 멈춘다. 큐에 넣는 동안에는 읽기 잠금을 잡아
+ * 종료가 시작된 뒤 큐에 들어가서 아무도 저장하지 않는 기록이 없게 한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FailedTransactionRecorder {
+
+    private static final String METRIC_PREFIX = "account.failed_transaction";
+
+    private final TransactionService transactionService;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+
+    @Value("${account.failed-transaction.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${account.failed-transaction.batch-size:500}")
+    private int batchSize;
+
+    @Value("${account.failed-transaction.offer-timeout:50}")
+    private long offerTimeout;
+
+    private BlockingQueue<FailedTransaction> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // 가상 스레드에서 큐를 기다리는 동안 캐리어 스레드를 붙잡지 않도록 synchronized 대신 사용
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::drainLoop, "failed-transaction-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        // 큐에 넣고 있는 요청이 끝날 때까지 기다렸다가 멈춘다
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+
+        writer.join();
+
+        // 작성 스레드가 중간에 끊겼으면 남은 기록을 여기서 저장한다
+        List<FailedTransaction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    public void record(
+            TransactionType transactionType, String accountNumber, long amount
+    ) {
+
+        FailedTransaction failedTransaction = FailedTransaction.builder()
+                .transactionType(transactionType)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .failedAt(LocalDateTime.now())
+                .build();
+
+        if (offerWhileRunning(failedTransaction)) {
+            return;
+        }
+
+        // 큐가 가득 찼거나 종료 중이면 요청 스레드에서 직접 저장
+        meterRegistry.counter(METRIC_PREFIX + ".rejected").increment();
+        write(Collections.singletonList(failedTransaction));
+    }
+
+    private boolean offerWhileRunning(FailedTransaction failedTransaction) {
+
+        runningLock.readLock().lock();
+
+        try {
+            return running && queue.offer(
+                    failedTransaction, offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            runningLock.readLock().unlock();
+        }
+    }
+
+    private void drainLoop() {
+
+        while (running || !queue.isEmpty()) {
+            List<FailedTransaction> batch = new ArrayList<>(batchSize);
+
+            try {
+                FailedTransaction first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+        }
+    }
+
+    private void write(List<FailedTransaction> batch) {
+
+        // 계좌가 있는 샤드별로 나눠서 저장
+        Map<Integer, List<FailedTransaction>> batchesByShard = batch.stream()
+                .collect(Collectors.groupingBy(failedTransaction ->
+                        shardRouter.resolve(failedTransaction.getAccountNumber())));
+
+        batchesByShard.forEach((shard, shardBatch) -> {
+            try {
+                ShardContext.run(shard,
+                        () -> transactionService.saveFailedTransactions(shardBatch));
+                meterRegistry.counter(METRIC_PREFIX + ".written").increment(shardBatch.size());
+            } catch (RuntimeException e) {
+                log.error("failed transaction write failed, {} dropped", shardBatch.size(), e);
+                meterRegistry.counter(METRIC_PREFIX + ".dropped").increment(shardBatch.size());
+            }
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.example.account.type.ErrorCode.IDEMPOTENCY_KEY_REUSED;
+import static com.example.account.type.ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS;
+
+/**
+ * Idempotency-Key 단위로 첫 번째 성공 응답을 Redis 에 저장해 두고,
+ * 같은 키의 재요청에는 DB 를 거치지 않고 저장된 응답을 돌려준다.
+ * 처리 중인 요청과 같은 키가 들어오면 결과가 나올 때까지 기다린다.
+ * 실패한 요청은 저장하지 않으므로 같은 키로 다시 시도할 수 있다.
+ * 처리 중 표시는 짧은 만료 시간으로 두어, 처리 중에 서버가 죽어도 키가 오래 막히지 않는다.
+ * 요청 내용 요약은 SHA-256 16진수로 저장하므로 구분자와 섞이지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "account:idempotency:";
+    private static final String IN_PROGRESS = "P";
+    private static final String DONE = "D";
+    private static final long POLL_INTERVAL = 20L;
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    // 완료된 응답의 보관 시간(초)
+    @Value("${account.idempotency.ttl:86400}")
+    private long ttl;
+
+    // 처리 중 표시의 만료 시간(초), 요청 처리 제한 시간의 몇 배로 둔다
+    @Value("${account.idempotency.in-progress-ttl:30}")
+    private long inProgressTtl;
+
+    @Value("${account.idempotency.wait-timeout:5000}")
+    private long waitTimeout;
+
+    /**
+     * @param fingerprint 같은 키로 다른 요청이 들어오는 것을 막기 위한 요청 내용 요약
+     */
+    public <T> T execute(
+            String idempotencyKey, String operation, String fingerprint,
+            Class<T> responseType, Supplier<T> action
+    ) {
+
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return action.get();
+        }
+
+        RBucket<String> bucket = redissonClient.getBucket(
+                KEY_PREFIX + operation + ":" + idempotencyKey, StringCodec.INSTANCE);
+        String digest = digest(fingerprint);
+        long deadline = System.currentTimeMillis() + waitTimeout;
+
+        while (true) {
+            if (bucket.trySet(IN_PROGRESS + "|" + digest, inProgressTtl, TimeUnit.SECONDS)) {
+                return executeFirst(bucket, digest, action);
+            }
+
+            String stored = bucket.get();
+            if (stored != null) {
+                String[] parts = stored.split("\\|", 3);
+                if (!parts[1].equals(digest)) {
+                    throw new AccountException(IDEMPOTENCY_KEY_REUSED);
+                }
+                if (DONE.equals(parts[0])) {
+                    return read(parts[2], responseType);
+                }
+            }
+            // stored == null 이면 앞선 요청이 실패했거나 처리 중 표시가 만료된 것이므로
+            // 다시 선점을 시도한다
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new AccountException(IDEMPOTENCY_REQUEST_IN_PROGRESS);
+            }
+            sleep();
+        }
+    }
+
+    private <T> T executeFirst(
+            RBucket<String> bucket, String digest, Supplier<T> action
+    ) {
+
+        T response;
+
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            bucket.delete();
+            throw e;
+        }
+
+        try {
+            bucket.set(DONE + "|" + digest + "|"
+                    + objectMapper.writeValueAsString(response), ttl, TimeUnit.SECONDS);
+        } catch (JsonProcessingException e) {
+            log.error("idempotent response serialization failed", e);
+            bucket.delete();
+        }
+
+        return response;
+    }
+
+    static String digest(String fingerprint) {
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> responseType) {
+
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("stored idempotent response is broken", e);
+        }
+    }
+
+    private static void sleep() {
+
+        try {
+            Thread.sleep(POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(IDEMPOTENCY_REQUEST_IN_PROGRESS);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.BalanceCheckpoint;
+import com.example.account.domain.JournalEntry;
+import com.example.account.dto.AccountBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.BalanceCheckpointRepository;
+import com.example.account.repository.JournalEntryRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.JournalDirection;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+
+/**
+ * 잔액의 원본인 분개(journal)를 기록하고, 분개로부터 잔액을 다시 계산한다.
+ * Account.balance 는 분개를 누적한 결과이며 Account.journalSequence 까지 반영되어 있다.
+ * 분개가 쌓인 계좌는 주기적으로 체크포인트를 남겨, 재계산 시 그 이후만 읽는다.
+ * 체크포인트는 이전 체크포인트에 분개를 더해 만들고, Account.balance 와 다르면 지표와 로그로 남긴다.
+ * 잔액을 바꾸는 모든 경로가 여기를 거치므로 계좌 목록 캐시에도 여기서 알린다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JournalService {
+
+    static final String CHECKPOINT_MISMATCH_METRIC = "account.journal.checkpoint_mismatch";
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final AccountListCacheService accountListCacheService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.journal.checkpoint-interval:1000}")
+    private long checkpointInterval;
+
+    @Value("${account.journal.checkpoint-batch-size:500}")
+    private int checkpointBatchSize;
+
+    /**
+     * 엔티티의 잔액을 바꾼 직후 같은 트랜잭션 안에서 호출한다.
+     * 순번 증가는 Account 의 버전 검사로 보호된다.
+     */
+    public JournalEntry record(
+            Account account, JournalDirection direction,
+            long amount, Long transactionId
+    ) {
+
+        account.setJournalSequence(account.getJournalSequence() + 1);
+
+        JournalEntry entry = journalEntryRepository.save(JournalEntry.builder()
+                .accountId(account.getId())
+                .sequence(account.getJournalSequence())
+                .direction(direction)
+                .amount(amount)
+                .balanceAfter(account.getBalance())
+                .transactionId(transactionId)
+                .build());
+        accountListCacheService.balanceChanged(Collections.singletonList(entry));
+
+        return entry;
+    }
+
+    /**
+     * 순번을 이미 정한 분개를 저장한다. (조건부 UPDATE, 인메모리 원장처럼
+     * 엔티티 없이 잔액을 바꾸는 경로용)
+     */
+    public void recordAll(List<JournalEntry> entries) {
+        journalEntryRepository.saveAll(entries);
+        accountListCacheService.balanceChanged(entries);
+    }
+
+    /**
+     * 마지막 체크포인트 + 그 이후 분개로 잔액을 다시 계산한다.
+     * 분개와 체크포인트는 계좌가 있는 샤드에만 있으므로 계좌번호로 샤드를 고른다.
+     * 샤드는 트랜잭션을 시작할 때 정해지므로 여기서는 트랜잭션을 열지 않는다.
+     * (체크포인트 이후만 더하므로 두 조회 사이에 체크포인트가 새로 생겨도 결과는 같다)
+     */
+    public long rebuildBalance(String accountNumber) {
+
+        return shardRouter.call(accountNumber, () -> {
+            long accountId = accountRepository.findSummaryByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND))
+                    .getAccountId();
+
+            BalanceCheckpoint checkpoint = balanceCheckpointRepository
+                    .findFirstByAccountIdOrderBySequenceDesc(accountId)
+                    .orElse(null);
+
+            long sequence = checkpoint == null ? 0L : checkpoint.getSequence();
+            long balance = checkpoint == null ? 0L : checkpoint.getBalance();
+
+            return balance + journalEntryRepository.sumAmountAfter(
+                    accountId, sequence, JournalDirection.CREDIT);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${account.journal.checkpoint-delay:60000}")
+    public void checkpoint() {
+
+        // 샤드마다 따로 대상을 찾고, saveAll 이 샤드별 트랜잭션이 된다
+        shardRouter.fanOut(shard -> {
+            checkpointCurrentShard();
+            return null;
+        }, ShardRouter.NO_TIMEOUT);
+    }
+
+    private void checkpointCurrentShard() {
+
+        List<AccountBalance> targets = accountRepository.findCheckpointTargets(
+                checkpointInterval, PageRequest.of(0, checkpointBatchSize));
+
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        // 잔액은 분개가 원본이므로 이전 체크포인트에 분개를 접어서 구한다
+        balanceCheckpointRepository.saveAll(targets.stream()
+                .map(this::foldCheckpoint)
+                .collect(Collectors.toList()));
+
+        log.info("balance checkpoints written: {}", targets.size());
+    }
+
+    private BalanceCheckpoint foldCheckpoint(AccountBalance target) {
+
+        long accountId = target.getAccountId();
+        BalanceCheckpoint previous = balanceCheckpointRepository
+                .findFirstByAccountIdOrderBySequenceDesc(accountId)
+                .orElse(null);
+
+        long after = previous == null ? 0L : previous.getSequence();
+        long balance = (previous == null ? 0L : previous.getBalance())
+                + journalEntryRepository.sumAmountBetween(accountId, after,
+                        target.getJournalSequence(), JournalDirection.CREDIT);
+
+        // 잔액과 순번은 같은 행에서 함께 바뀌므로 한 번에 읽은 Account.balance 와 같아야 한다
+        if (balance != target.getBalance()) {
+            meterRegistry.counter(CHECKPOINT_MISMATCH_METRIC).increment();
+            log.error("journal and account balance differ: accountId={}, sequence={}, "
+                            + "journal={}, account={}",
+                    accountId, target.getJournalSequence(), balance, target.getBalance());
+        }
+
+        return BalanceCheckpoint.builder()
+                .accountId(accountId)
+                .sequence(target.getJournalSequence())
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 인메모리 원장에 반영되었지만 아직 DB 에 기록되지 않은 거래.
+ */
+@Getter
+@AllArgsConstructor
+class LedgerEntry {
+
+    private final long accountId;
+    private final String accountNumber;
+    private final TransactionType transactionType;
+    private final long amount;
+    private final long balanceSnapshot;
+    private final long sequence;
+    private final long transactionId;
+    private final LocalDateTime transactionAt;
+    // 취소인 경우 원거래 아이디
+    private final Long cancelledTransactionId;
+}
@@ -0,0 +1,177 @@
+package com.example.account.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인메모리 원장은 잔액 셀과 대기 중인 취소를 한 JVM 안에서만 알고 있으므로
+ * 원장 모드는 인스턴스 하나로만 운영한다. 원장 모드 인스턴스는 Redis 에 소유 키를
+ * 잡고 주기적으로 연장하며, 키가 있는 동안 다른 인스턴스는 (원장 모드 여부와 관계없이)
+ * 기동하지 않는다. 다른 인스턴스가 같은 계좌를 DB 경로로 바꾸는 것도 막기 위해서다.
+ * 이미 떠 있는 인스턴스도 주기적으로 키를 다시 확인하고, {@link LedgerService} 는
+ * 원장 인스턴스가 소유권을 잃었거나 다른 인스턴스가 원장을 돌리는 동안 거래를 받지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerOwnerLease {
+
+    private static final String OWNER_KEY = "account:ledger:owner";
+    private static final String OWNER_METRIC = "account.ledger.owner";
+    private static final String OWNED_ELSEWHERE_METRIC = "account.ledger.owned_elsewhere";
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${account.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${account.ledger.owner-lease:30}")
+    private long leaseSeconds;
+
+    private volatile boolean owner;
+    private volatile boolean ownedElsewhere;
+
+    @PostConstruct
+    public void acquire() {
+
+        if (!enabled) {
+            checkNoOwner();
+            Gauge.builder(OWNED_ELSEWHERE_METRIC, this, lease -> lease.ownedElsewhere ? 1 : 0)
+                    .register(meterRegistry);
+            return;
+        }
+
+        Gauge.builder(OWNER_METRIC, this, lease -> lease.owner ? 1 : 0)
+                .register(meterRegistry);
+
+        // Redis 를 쓸 수 없으면 단일 인스턴스를 보장할 수 없으므로 기동하지 않는다
+        if (!ownerBucket().trySet(instanceId, leaseSeconds, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("ledger mode is already running on "
+                    + ownerBucket().get() + ", ledger mode supports a single instance");
+        }
+
+        owner = true;
+        log.info("ledger owner lease acquired: {}", instanceId);
+    }
+
+    @Scheduled(fixedDelayString = "${account.ledger.owner-renew-interval:10000}")
+    public void renew() {
+
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            RBucket<String> bucket = ownerBucket();
+
+            if (instanceId.equals(bucket.get())) {
+                bucket.expire(leaseSeconds, TimeUnit.SECONDS);
+                owner = true;
+            } else {
+                // Redis 장애로 키가 만료됐으면 다시 잡는다
+                owner = bucket.trySet(instanceId, leaseSeconds, TimeUnit.SECONDS);
+            }
+        } catch (RedisException e) {
+            log.error("ledger owner lease renew failed", e);
+            return;
+        }
+
+        if (!owner) {
+            log.error("ledger owner lease taken by {}, more than one ledger instance is running",
+                    ownerBucket().get());
+        }
+    }
+
+    /**
+     * 원장 모드가 아닌 인스턴스가 기동한 뒤에 원장 인스턴스가 뜨는 경우를 잡는다.
+     * Redis 에 닿지 않으면 마지막으로 확인한 상태를 유지한다.
+     */
+    @Scheduled(fixedDelayString = "${account.ledger.owner-renew-interval:10000}")
+    public void recheckOwner() {
+
+        if (enabled) {
+            return;
+        }
+
+        String current;
+
+        try {
+            current = ownerBucket().get();
+        } catch (RedisException e) {
+            log.warn("ledger owner recheck skipped, redis unavailable", e);
+            return;
+        }
+
+        if (current != null && !ownedElsewhere) {
+            log.error("ledger mode started on {}, refusing balance changes on this instance",
+                    current);
+        } else if (current == null && ownedElsewhere) {
+            log.info("ledger owner lease released, accepting balance changes again");
+        }
+
+        ownedElsewhere = current != null;
+    }
+
+    public boolean isOwner() {
+        return owner;
+    }
+
+    public boolean isOwnedElsewhere() {
+        return ownedElsewhere;
+    }
+
+    @PreDestroy
+    public void release() {
+
+        if (!owner) {
+            return;
+        }
+
+        try {
+            RBucket<String> bucket = ownerBucket();
+            if (instanceId.equals(bucket.get())) {
+                bucket.delete();
+            }
+        } catch (RedisException e) {
+            log.error("ledger owner lease release failed, expires in {}s", leaseSeconds, e);
+        }
+    }
+
+    private void checkNoOwner() {
+
+        String current;
+
+        try {
+            current = ownerBucket().get();
+        } catch (RedisException e) {
+            log.warn("ledger owner check skipped, redis unavailable", e);
+            return;
+        }
+
+        if (current != null) {
+            throw new IllegalStateException("ledger mode is running on " + current
+                    + ", ledger mode supports a single instance");
+        }
+    }
+
+    private RBucket<String> ownerBucket() {
+        return redissonClient.getBucket(OWNER_KEY, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountKey;
+import com.example.account.domain.Account;
+import com.example.account.domain.JournalEntry;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionIds;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_LEDGER_STALLED;
+import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.example.account.type.ErrorCode.LEDGER_OWNER_UNAVAILABLE;
+import static com.example.account.type.JournalDirection.CREDIT;
+import static com.example.account.type.JournalDirection.DEBIT;
+import static com.example.account.type.ErrorCode.TRANSACTION_ALREADY_CANCELLED;
+import static com.example.account.type.ErrorCode.TRANSACTION_NOT_FOUND;
+import static com.example.account.type.TransactionResultType.SUCCESS;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * 거래가 몰리는 계좌를 위한 인메모리 원장.
+ * 잔액은 계좌별 셀에서 CAS 로 반영하고, Account/Transaction 은
+ * 주기적으로 모아서 DB 에 기록한다(write-behind).
+ * 관리 대상 계좌는 원장을 통해서만 잔액이 바뀌어야 한다.
+ * 셀과 대기 중인 취소는 이 JVM 에만 있으므로 원장 모드는 인스턴스 하나로만 운영하고,
+ * {@link LedgerOwnerLease} 가 이를 강제한다. (종료 시 flush 후에 소유 키를 놓는다)
+ * 소유권을 잃으면 새 거래를 받지 않고 쌓인 항목만 기록한 뒤, 다 기록된 셀은 버려서
+ * 소유권을 되찾았을 때 그 사이 바뀌었을 수 있는 DB 잔액을 다시 읽게 한다.
+ * 원장 모드가 아닌 인스턴스는 다른 인스턴스가 원장을 돌리는 동안 잔액을 바꾸지 않는다.
+ * 기록에 실패한 계좌는 그 항목을 버리지 않고 순번 순서대로 붙잡아 두어 분개 순번에 빈틈이 생기지 않게 한다.
+ * max-attempts 번 연속 실패하면 기록될 때까지 그 계좌의 새 거래를 받지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    static final String STALLED_METRIC = "account.ledger.stalled";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ValidService validService;
+    private final JournalService journalService;
+    private final ShardRouter shardRouter;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LedgerOwnerLease ledgerOwnerLease;
+
+    private final Map<String, BalanceCell> cells = new ConcurrentHashMap<>();
+    private final Queue<LedgerEntry> pendingEntries = new ConcurrentLinkedQueue<>();
+    // 아직 DB 에 기록되지 않은 사용 거래. 기록 전에 들어온 취소가 원거래를 찾을 수 있게 한다
+    private final Map<Long, LedgerEntry> pendingUses = new ConcurrentHashMap<>();
+    // 아직 DB 에 기록되지 않은 취소의 원거래 아이디
+    private final Set<Long> pendingCancels = ConcurrentHashMap.newKeySet();
+    // 기록에 실패해 붙잡아 둔 계좌별 항목, 기록될 때까지 같은 계좌의 이후 항목도 여기서 기다린다
+    // (flush 에서만 접근)
+    private final Map<String, List<LedgerEntry>> heldEntries = new LinkedHashMap<>();
+    // 계좌번호별 연속 기록 실패 횟수 (flush 에서만 접근)
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+
+    @Value("${account.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${account.ledger.account-numbers:}")
+    private Set<String> managedAccountNumbers;
+
+    @Value("${account.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${account.ledger.max-attempts:10}")
+    private int maxAttempts;
+
+    public boolean isManaged(String accountNumber) {
+
+        if (enabled) {
+            return managedAccountNumbers.contains(accountNumber);
+        }
+
+        // 원장 인스턴스의 셀이 모르는 사이에 잔액을 바꾸지 않도록 DB 경로도 막는다
+        if (ledgerOwnerLease.isOwnedElsewhere()) {
+            throw new AccountException(LEDGER_OWNER_UNAVAILABLE);
+        }
+
+        return false;
+    }
+
+    public TransactionDTO useBalance(
+            long userId, @AccountKey String accountNumber, long amount
+    ) {
+
+        BalanceCell cell = getCell(accountNumber);
+        BalanceCell.State current;
+        BalanceCell.State next;
+
+        do {
+            current = cell.current();
+
+            validService.validateUseBalance(
+                    userId,
+                    cell.getOwnerId(),
+                    cell.getAccountStatus(),
+                    current.getBalance(),
+                    amount);
+
+            next = current.apply(-amount);
+        } while (!cell.compareAndSet(current, next));
+
+        return append(accountNumber, cell, USE, amount, next, null);
+    }
+
+    public TransactionDTO cancelBalance(
+            String transactionId, @AccountKey String accountNumber, long amount
+    ) {
+
+        // db/manual/07 적용 이전의 32자리 아이디는 남겨둔 legacy_transaction_id 로 새 아이디를 찾는다
+        long id = TransactionIds.isLegacy(transactionId)
+                ? transactionRepository.findByLegacyTransactionId(transactionId)
+                        .map(Transaction::getTransactionId)
+                        .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND))
+                : TransactionIds.parse(transactionId);
+
+        // 기록 대기 중인 원거래를 먼저 보고, 기록이 끝난 뒤에야 빠지므로
+        // 둘 중 한 곳에서는 반드시 원거래가 보인다
+        LedgerEntry pendingUse = pendingUses.get(id);
+        Transaction transaction = pendingUse != null ? null
+                : transactionRepository.findByTransactionId(id)
+                        .orElseThrow(() ->
+                                new AccountException(TRANSACTION_NOT_FOUND));
+
+        BalanceCell cell = getCell(accountNumber);
+
+        if (pendingUse != null) {
+            validService.validateCancelBalance(
+                    pendingUse.getAccountId(),
+                    pendingUse.getAmount(),
+                    pendingUse.getTransactionAt(),
+                    cell.getAccountId(),
+                    amount);
+        } else {
+            validService.validateCancelBalance(
+                    transaction, cell.getAccountId(), amount);
+        }
+
+        // 기록 대기 중인 취소를 먼저 확인하고, 기록이 끝난 뒤에야 자리를 비우므로
+        // 둘 중 한 곳에서는 반드시 이전 취소가 보인다
+        if (!pendingCancels.add(id)) {
+            throw new AccountException(TRANSACTION_ALREADY_CANCELLED);
+        }
+        if (transactionRepository.existsByCancelledTransactionId(id)) {
+            pendingCancels.remove(id);
+            throw new AccountException(TRANSACTION_ALREADY_CANCELLED);
+        }
+
+        BalanceCell.State current;
+        BalanceCell.State next;
+
+        do {
+            current = cell.current();
+            next = current.apply(amount);
+        } while (!cell.compareAndSet(current, next));
+
+        return append(accountNumber, cell, CANCEL, amount, next, id);
+    }
+
+    /**
+     * 계좌 해지가 커밋된 뒤 셀의 상태를 바꿔, 해지된 계좌에서 원장이 더 차감하지 않게 한다.
+     * 셀이 아직 없으면 다음에 만들 때 DB 의 해지 상태를 읽는다.
+     */
+    public void accountUnregistered(String accountNumber) {
+
+        Runnable unregister = () -> cells.computeIfPresent(accountNumber, (number, cell) -> {
+            cell.unregister();
+            return cell;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            unregister.run();
+                        }
+                    });
+        } else {
+            unregister.run();
+        }
+    }
+
+    synchronized int pendingCount() {
+        return pendingEntries.size()
+                + heldEntries.values().stream().mapToInt(List::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${account.ledger.flush-interval:200}")
+    public synchronized void flush() {
+
+        writePending();
+
+        if (!ledgerOwnerLease.isOwner()) {
+            evictFlushedCells();
+        }
+    }
+
+    private void writePending() {
+
+        retryHeld();
+
+        List<LedgerEntry> batch = drain();
+
+        while (!batch.isEmpty()) {
+            boolean failed = false;
+
+            // 기록이 밀린 계좌의 새 항목은 앞선 항목 뒤에 붙여 두어 순번을 건너뛰지 않는다
+            List<LedgerEntry> writable = new ArrayList<>(batch.size());
+            for (LedgerEntry entry : batch) {
+                List<LedgerEntry> held = heldEntries.get(entry.getAccountNumber());
+                if (held != null) {
+                    held.add(entry);
+                } else {
+                    writable.add(entry);
+                }
+            }
+
+            // 샤드마다 따로 트랜잭션을 잡는다
+            Map<Integer, List<LedgerEntry>> batchesByShard = writable.stream()
+                    .collect(Collectors.groupingBy(entry ->
+                            shardRouter.resolve(entry.getAccountNumber())));
+
+            for (Map.Entry<Integer, List<LedgerEntry>> shardBatch : batchesByShard.entrySet()) {
+                if (!writeShard(shardBatch.getKey(), shardBatch.getValue())) {
+                    failed = true;
+                }
+            }
+
+            if (failed) {
+                return;
+            }
+
+            batch = drain();
+        }
+    }
+
+    // 기록할 항목이 남은 셀은 write 에서 찾으므로 남겨 둔다
+    private void evictFlushedCells() {
+
+        cells.entrySet().removeIf(cell -> !heldEntries.containsKey(cell.getKey())
+                && cell.getValue().current().getSequence()
+                        == cell.getValue().getFlushedSequence().get());
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+
+        flush();
+
+        // 끝내 기록하지 못한 항목은 셀과 함께 사라지므로 수동 복구를 위해 모두 남긴다
+        heldEntries.values().forEach(entries -> entries.forEach(entry ->
+                log.error("ledger entry not written at shutdown: {}", describe(entry))));
+    }
+
+    /**
+     * 묶음 기록이 실패하면 계좌별로 다시 기록해, 계속 실패하는 계좌가
+     * 같은 샤드의 다른 계좌까지 붙잡지 않게 한다.
+     */
+    private boolean writeShard(int shard, List<LedgerEntry> entries) {
+
+        try {
+            ShardContext.run(shard, () -> write(entries));
+            entries.forEach(entry -> failedAttempts.remove(entry.getAccountNumber()));
+            return true;
+        } catch (RuntimeException e) {
+            log.error("ledger flush failed on shard {}, {} entries", shard, entries.size(), e);
+        }
+
+        Map<String, List<LedgerEntry>> entriesByAccount = entries.stream()
+                .collect(Collectors.groupingBy(LedgerEntry::getAccountNumber,
+                        LinkedHashMap::new, Collectors.toList()));
+        boolean written = true;
+
+        for (Map.Entry<String, List<LedgerEntry>> accountEntries : entriesByAccount.entrySet()) {
+            if (!writeAccount(shard, accountEntries.getKey(), accountEntries.getValue())) {
+                written = false;
+            }
+        }
+
+        return written;
+    }
+
+    private void retryHeld() {
+
+        for (String accountNumber : new ArrayList<>(heldEntries.keySet())) {
+            writeAccount(shardRouter.resolve(accountNumber),
+                    accountNumber, heldEntries.remove(accountNumber));
+        }
+    }
+
+    /**
+     * 한 계좌의 항목을 순번 순서로 한 트랜잭션에 기록한다.
+     * 실패하면 모두 붙잡아 두고, 이후 들어온 같은 계좌의 항목도 그 뒤에 기다리게 한다.
+     */
+    private boolean writeAccount(int shard, String accountNumber, List<LedgerEntry> entries) {
+
+        entries.sort(Comparator.comparingLong(LedgerEntry::getSequence));
+
+        try {
+            ShardContext.run(shard, () -> write(entries));
+        } catch (RuntimeException e) {
+            log.error("ledger write failed: account={}, {} entries",
+                    accountNumber, entries.size(), e);
+            hold(accountNumber, entries);
+            return false;
+        }
+
+        failedAttempts.remove(accountNumber);
+        BalanceCell cell = cells.get(accountNumber);
+        if (cell != null && cell.isStalled()) {
+            cell.resume();
+            log.info("ledger writes resumed: account={}", accountNumber);
+        }
+
+        return true;
+    }
+
+    private void hold(String accountNumber, List<LedgerEntry> entries) {
+
+        heldEntries.computeIfAbsent(accountNumber, number -> new ArrayList<>()).addAll(entries);
+        int attempts = failedAttempts.merge(accountNumber, 1, Integer::sum);
+
+        // 잔액과 순번은 이미 셀에 반영되었으므로 항목을 버리지 않는다.
+        // 대신 계좌의 새 거래를 막아 기록되지 않은 변경이 더 쌓이지 않게 한다
+        if (attempts == maxAttempts) {
+            BalanceCell cell = cells.get(accountNumber);
+            if (cell != null) {
+                cell.stall();
+            }
+            meterRegistry.counter(STALLED_METRIC).increment();
+            log.error("ledger writes stalled after {} attempts, account blocked until written: {}",
+                    attempts, describe(entries.get(0)));
+        }
+    }
+
+    private static String describe(LedgerEntry entry) {
+
+        return "accountId=" + entry.getAccountId()
+                + ", accountNumber=" + entry.getAccountNumber()
+                + ", type=" + entry.getTransactionType()
+                + ", amount=" + entry.getAmount()
+                + ", balanceSnapshot=" + entry.getBalanceSnapshot()
+                + ", sequence=" + entry.getSequence()
+                + ", transactionId=" + entry.getTransactionId()
+                + ", transactionAt=" + entry.getTransactionAt()
+                + ", cancelledTransactionId=" + entry.getCancelledTransactionId();
+    }
+
+    private BalanceCell getCell(String accountNumber) {
+
+        if (!ledgerOwnerLease.isOwner()) {
+            throw new AccountException(LEDGER_OWNER_UNAVAILABLE);
+        }
+
+        BalanceCell cell = cells.computeIfAbsent(accountNumber, number -> {
+            Account account = accountRepository.findByAccountNumber(number)
+                    .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+            return new BalanceCell(
+                    account.getId(),
+                    account.getAccountUser().getId(),
+                    account.getAccountStatus(),
+                    account.getBalance(),
+                    account.getJournalSequence());
+        });
+
+        if (cell.isStalled()) {
+            throw new AccountException(ACCOUNT_LEDGER_STALLED);
+        }
+
+        return cell;
+    }
+
+    private TransactionDTO append(
+            String accountNumber, BalanceCell cell,
+            TransactionType transactionType, long amount,
+            BalanceCell.State state, Long cancelledTransactionId
+    ) {
+
+        LedgerEntry entry = new LedgerEntry(
+                cell.getAccountId(),
+                accountNumber,
+                transactionType,
+                amount,
+                state.getBalance(),
+                state.getSequence(),
+                transactionIdGenerator.nextId(),
+                LocalDateTime.now(),
+                cancelledTransactionId);
+
+        if (transactionType == USE) {
+            pendingUses.put(entry.getTransactionId(), entry);
+        }
+        pendingEntries.offer(entry);
+
+        return TransactionDTO.builder()
+                .accountNumber(accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(SUCCESS)
+                .amount(amount)
+                .balanceSnapshot(entry.getBalanceSnapshot())
+                .transactionId(TransactionIds.format(entry.getTransactionId()))
+                .transactionAt(entry.getTransactionAt())
+                .build();
+    }
+
+    private List<LedgerEntry> drain() {
+
+        List<LedgerEntry> batch = new ArrayList<>();
+        LedgerEntry entry;
+
+        while (batch.size() < batchSize
+                && (entry = pendingEntries.poll()) != null) {
+            batch.add(entry);
+        }
+
+        return batch;
+    }
+
+    private void write(List<LedgerEntry> batch) {
+
+        // 계좌별로 가장 마지막 순번의 잔액만 반영
+        Map<String, LedgerEntry> latestEntries = new HashMap<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Transaction> transactions = new ArrayList<>(batch.size());
+            List<JournalEntry> journalEntries = new ArrayList<>(batch.size());
+
+            for (LedgerEntry entry : batch) {
+                latestEntries.merge(entry.getAccountNumber(), entry,
+                        (a, b) -> a.getSequence() >= b.getSequence() ? a : b);
+
+                transactions.add(Transaction.builder()
+                        .transactionType(entry.getTransactionType())
+                        .transactionResultType(SUCCESS)
+                        .account(accountRepository.getById(entry.getAccountId()))
+                        .amount(entry.getAmount())
+                        .balanceSnapshot(entry.getBalanceSnapshot())
+                        .transactionId(entry.getTransactionId())
+                        .transactionAt(entry.getTransactionAt())
+                        .cancelledTransactionId(entry.getCancelledTransactionId())
+                        .build());
+
+                journalEntries.add(JournalEntry.builder()
+                        .accountId(entry.getAccountId())
+                        .sequence(entry.getSequence())
+                        .direction(entry.getTransactionType() == USE ? DEBIT : CREDIT)
+                        .amount(entry.getAmount())
+                        .balanceAfter(entry.getBalanceSnapshot())
+                        .transactionId(entry.getTransactionId())
+                        .build());
+            }
+
+            transactionRepository.saveAll(transactions);
+            journalService.recordAll(journalEntries);
+
+            for (LedgerEntry entry : latestEntries.values()) {
+                BalanceCell cell = cells.get(entry.getAccountNumber());
+                if (entry.getSequence() > cell.getFlushedSequence().get()) {
+                    accountRepository.updateBalance(
+                            entry.getAccountId(),
+                            entry.getBalanceSnapshot(),
+                            entry.getSequence());
+                }
+            }
+        });
+
+        for (LedgerEntry entry : latestEntries.values()) {
+            cells.get(entry.getAccountNumber()).getFlushedSequence()
+                    .accumulateAndGet(entry.getSequence(), Math::max);
+        }
+
+        for (LedgerEntry entry : batch) {
+            if (entry.getCancelledTransactionId() != null) {
+                pendingCancels.remove(entry.getCancelledTransactionId());
+            }
+            if (entry.getTransactionType() == USE) {
+                pendingUses.remove(entry.getTransactionId());
+            }
+        }
+    }
+}
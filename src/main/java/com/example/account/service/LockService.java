@@ -0,0 +1,144 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+
+/**
+ * 계좌 단위 분산 락. Redis 를 쓸 수 없으면 계좌번호로 나눈 JVM 내부 락으로 대신한다.
+ * 로컬 락은 다른 서버 인스턴스와의 경합은 막지 못하므로, 그동안의 동시 갱신은
+ * Account 의 @Version 충돌 재시도(OptimisticRetry)로 걸러낸다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LockService {
+
+    private static final String LOCK_PREFIX = "account:lock:";
+    private static final String LOCK_WAIT_METRIC = "account.lock.wait";
+    private static final int LOCAL_STRIPES = 1024;
+
+    private final RedissonClient redissonClient;
+    private final RedisHealthMonitor redisHealthMonitor;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock[] localLocks = createLocalLocks();
+
+    @Value("${account.lock.wait-time:1000}")
+    private long defaultWaitTime;
+
+    @Value("${account.lock.lease-time:5000}")
+    private long defaultLeaseTime;
+
+    public Lock lock(String accountNumber, long waitTime, long leaseTime) {
+
+        long wait = waitTime < 0 ? defaultWaitTime : waitTime;
+        long lease = leaseTime < 0 ? defaultLeaseTime : leaseTime;
+
+        if (redisHealthMonitor.isAvailable()) {
+            try {
+                return lockRedis(accountNumber, wait, lease);
+            } catch (RedisException e) {
+                log.error("redis lock failed, fall back to local lock: {}", accountNumber, e);
+                redisHealthMonitor.markUnavailable();
+            }
+        }
+
+        return lockLocal(accountNumber, wait);
+    }
+
+    public void unlock(Lock lock) {
+
+        if (lock instanceof RLock) {
+            RLock rLock = (RLock) lock;
+            try {
+                if (rLock.isHeldByCurrentThread()) {
+                    rLock.unlock();
+                }
+            } catch (RedisException e) {
+                // lease 가 지나면 Redis 에서 알아서 풀린다
+                log.error("redis unlock failed: {}", rLock.getName(), e);
+            }
+            return;
+        }
+
+        ReentrantLock localLock = (ReentrantLock) lock;
+        if (localLock.isHeldByCurrentThread()) {
+            localLock.unlock();
+        }
+    }
+
+    private Lock lockRedis(String accountNumber, long wait, long lease) {
+
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + accountNumber);
+        long startedAt = System.nanoTime();
+        boolean acquired = false;
+
+        try {
+            acquired = lock.tryLock(wait, lease, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recordWait("redis", acquired, startedAt);
+        }
+
+        if (!acquired) {
+            log.error("lock acquisition failed: {}", accountNumber);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        return lock;
+    }
+
+    private Lock lockLocal(String accountNumber, long wait) {
+
+        ReentrantLock lock = localLocks[
+                (accountNumber.hashCode() & Integer.MAX_VALUE) % LOCAL_STRIPES];
+        long startedAt = System.nanoTime();
+        boolean acquired = false;
+
+        try {
+            acquired = lock.tryLock(wait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recordWait("local", acquired, startedAt);
+        }
+
+        if (!acquired) {
+            log.error("local lock acquisition failed: {}", accountNumber);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        return lock;
+    }
+
+    private void recordWait(String mode, boolean acquired, long startedAt) {
+        meterRegistry.timer(LOCK_WAIT_METRIC,
+                        "mode", mode,
+                        "result", acquired ? "acquired" : "failed")
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private static ReentrantLock[] createLocalLocks() {
+
+        ReentrantLock[] locks = new ReentrantLock[LOCAL_STRIPES];
+        for (int i = 0; i < LOCAL_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        return locks;
+    }
+}
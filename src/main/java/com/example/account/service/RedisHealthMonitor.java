@@ -0,0 +1,101 @@
+package com.example.account.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주기적으로 Redis 노드 전체에 PING 을 보내 사용 가능 여부를 기록한다.
+ * 요청 스레드는 이 값만 보고 Redis 락을 쓸지 로컬 락을 쓸지 정하므로
+ * Redis 가 죽어 있어도 Redisson 타임아웃만큼 기다리지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisHealthMonitor {
+
+    private static final String AVAILABLE_METRIC = "account.redis.available";
+    private static final String TRANSITION_METRIC = "account.redis.transition";
+
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.redis.health-check-timeout:200}")
+    private long healthCheckTimeout;
+
+    private volatile boolean available = true;
+    private volatile long changedAt = System.nanoTime();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder(AVAILABLE_METRIC, this, monitor -> monitor.available ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${account.redis.health-check-interval:1000}")
+    public void check() {
+
+        boolean reachable;
+
+        try {
+            reachable = redissonClient.getNodesGroup()
+                    .pingAll(healthCheckTimeout, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            reachable = false;
+        }
+
+        if (reachable) {
+            markAvailable();
+        } else {
+            markUnavailable();
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Redis 명령이 실패한 요청 스레드가 다음 점검을 기다리지 않고 바로 내릴 때도 쓴다.
+     */
+    public void markUnavailable() {
+        if (available) {
+            changeTo(false);
+        }
+    }
+
+    void markAvailable() {
+        if (!available) {
+            changeTo(true);
+        }
+    }
+
+    private synchronized void changeTo(boolean available) {
+
+        if (this.available == available) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - changedAt);
+
+        this.available = available;
+        this.changedAt = now;
+
+        meterRegistry.counter(TRANSITION_METRIC, "to", available ? "up" : "down").increment();
+
+        if (available) {
+            log.warn("redis recovered after {}ms, back to redis locks", elapsedMillis);
+        } else {
+            log.error("redis unreachable, switching to local locks");
+        }
+    }
+}
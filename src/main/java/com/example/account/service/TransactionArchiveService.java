@@ -0,0 +1,97 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 취소 가능 기간(1년)이 지난 거래를 월 단위로 transaction_archive 로 옮긴다.
+ * 지난 거래는 더 이상 잔액을 바꿀 수 없으므로, 최근 거래 테이블과 인덱스는
+ * 보관 기간 + 1개월 정도의 크기로 유지된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiveService {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.archive.retention-days:366}")
+    private long retentionDays;
+
+    @Value("${account.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${account.archive.cron:0 30 3 * * *}")
+    public void archive() {
+
+        LocalDateTime cutoff = archiveCutoff(LocalDateTime.now());
+
+        long archived = shardRouter.fanOut(shard -> archiveBefore(cutoff), ShardRouter.NO_TIMEOUT)
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        if (archived > 0) {
+            log.info("transactions archived before {}: {}", cutoff, archived);
+        }
+    }
+
+    // 보관 기간이 지난 날이 속한 달의 1일 이전까지, 한 달씩 통째로 옮긴다
+    LocalDateTime archiveCutoff(LocalDateTime now) {
+        return now.minusDays(retentionDays)
+                .toLocalDate()
+                .withDayOfMonth(1)
+                .atStartOfDay();
+    }
+
+    long archiveBefore(LocalDateTime cutoff) {
+
+        long archived = 0;
+        int moved;
+
+        // 배치마다 커밋해 긴 트랜잭션과 큰 undo 를 만들지 않는다
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            archived += moved;
+        } while (moved == batchSize);
+
+        return archived;
+    }
+
+    private int moveBatch(LocalDateTime cutoff) {
+
+        List<Transaction> transactions = transactionRepository.findArchiveTargets(
+                cutoff, PageRequest.of(0, batchSize));
+
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionArchiveRepository.saveAll(transactions.stream()
+                .map(transaction -> TransactionArchive.from(transaction, now))
+                .collect(Collectors.toList()));
+        transactionRepository.deleteAllByIdInBatch(transactions.stream()
+                .map(Transaction::getId)
+                .collect(Collectors.toList()));
+
+        return transactions.size();
+    }
+}
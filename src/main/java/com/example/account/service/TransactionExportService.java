@@ -0,0 +1,143 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.dto.TransactionDTO;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 기간 내 거래 내역을 JDBC 커서로 한 건씩 읽어 바로 내보낸다.
+ * 읽은 엔티티는 영속성 컨텍스트에서 떼어내므로 건수와 관계없이 메모리 사용량이 일정하다.
+ * 취소 가능 기간이 지난 거래는 보관 테이블로 옮겨지므로 샤드마다 보관 테이블을 먼저 읽고
+ * 최근 거래 테이블을 이어서 읽는다. 보관 작업이 도는 중에 내보내면 두 조회 사이에 옮겨진
+ * 거래가 빠질 수 있으므로 보관 작업 시간과 겹치지 않게 한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final String CSV_HEADER = "transactionId,accountNumber,transactionType," +
+            "transactionResultType,amount,balanceSnapshot,transactionAt";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    public void export(
+            LocalDateTime from, LocalDateTime to,
+            ExportFormat format, OutputStream outputStream
+    ) throws IOException {
+
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            // 샤드 안에서는 시간순이고, 샤드끼리는 순서대로 이어 붙인다
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardContext.run(shard, () -> readOnlyTemplate.executeWithoutResult(status -> {
+                    try (Stream<TransactionArchive> archives =
+                                 transactionArchiveRepository.streamByTransactionAtBetween(
+                                         archiveMonth(from), archiveMonth(to), from, to)) {
+                        write(archives.iterator(), TransactionDTO::fromArchive, format, writer);
+                    }
+                    try (Stream<Transaction> transactions =
+                                 transactionRepository.streamByTransactionAtBetween(from, to)) {
+                        write(transactions.iterator(), TransactionDTO::fromEntity, format, writer);
+                    }
+                }));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private static int archiveMonth(LocalDateTime dateTime) {
+        return dateTime.getYear() * 100 + dateTime.getMonthValue();
+    }
+
+    private <T> void write(
+            Iterator<T> transactions, Function<T, TransactionDTO> toDTO,
+            ExportFormat format, Writer writer
+    ) {
+
+        int count = 0;
+
+        try {
+            while (transactions.hasNext()) {
+                T transaction = transactions.next();
+                TransactionDTO transactionDTO = toDTO.apply(transaction);
+
+                if (format == ExportFormat.CSV) {
+                    writeCsv(transactionDTO, writer);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(transactionDTO));
+                }
+                writer.write('\n');
+
+                entityManager.detach(transaction);
+                // 연관 엔티티(계좌)까지 주기적으로 비운다
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(
+            TransactionDTO transactionDTO, Writer writer
+    ) throws IOException {
+
+        writer.write(transactionDTO.getTransactionId());
+        writer.write(',');
+        writer.write(transactionDTO.getAccountNumber());
+        writer.write(',');
+        writer.write(transactionDTO.getTransactionType().name());
+        writer.write(',');
+        writer.write(transactionDTO.getTransactionResultType().name());
+        writer.write(',');
+        writer.write(Long.toString(transactionDTO.getAmount()));
+        writer.write(',');
+        writer.write(Long.toString(transactionDTO.getBalanceSnapshot()));
+        writer.write(',');
+        writer.write(transactionDTO.getTransactionAt().toString());
+    }
+}
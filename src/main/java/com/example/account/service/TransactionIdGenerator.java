@@ -0,0 +1,60 @@
+package com.example.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 시간순으로 증가하는 64비트 거래 아이디 (Snowflake 방식).
+ * [41비트: 2024-01-01 이후 ms][10비트: 노드][12비트: 같은 ms 안의 순번]
+ * 새 아이디는 항상 인덱스의 끝에 붙으므로 UUID 처럼 삽입 위치가 흩어지지 않는다.
+ * 노드 아이디는 서버 인스턴스마다 달라야 한다.
+ */
+@Service
+public class TransactionIdGenerator {
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    @Value("${account.transaction-id.node-id:0}")
+    private long nodeId;
+
+    // 마지막으로 발급한 (시각 << SEQUENCE_BITS | 순번)
+    private final AtomicLong last = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("transaction id node must be 0.." + MAX_NODE_ID
+                    + ": " + nodeId);
+        }
+    }
+
+    public long nextId() {
+        return nextId(System.currentTimeMillis());
+    }
+
+    long nextId(long nowMillis) {
+
+        long now = nowMillis - EPOCH_MILLIS;
+
+        while (true) {
+            long previous = last.get();
+            // 같은 ms 이거나 시계가 뒤로 갔으면 마지막 값에 이어서 발급한다.
+            // ms 당 4096 개를 넘으면 순번이 시각으로 올라가 다음 ms 를 미리 쓴다
+            long next = now > previous >>> SEQUENCE_BITS
+                    ? now << SEQUENCE_BITS
+                    : previous + 1;
+
+            if (last.compareAndSet(previous, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS
+                        | (next & ((1L << SEQUENCE_BITS) - 1));
+            }
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountKey;
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.OptimisticRetry;
 import com.example.account.domain.Account;
-import com.example.account.domain.AccountUser;
+import com.example.account.domain.JournalEntry;
 import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.dto.AccountBalance;
+import com.example.account.dto.AccountSummary;
+import com.example.account.dto.BatchTransaction;
+import com.example.account.dto.FailedTransaction;
+import com.example.account.dto.TransactionCursor;
 import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionHistoryDTO;
+import com.example.account.dto.TransactionIds;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.ConstraintViolations;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionArchiveRepository;
 import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.OptimisticLockException;
 import javax.transaction.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.example.account.type.ErrorCode.*;
+import static com.example.account.type.JournalDirection.CREDIT;
+import static com.example.account.type.JournalDirection.DEBIT;
 import static com.example.account.type.TransactionResultType.FAIL;
 import static com.example.account.type.TransactionResultType.SUCCESS;
 import static com.example.account.type.TransactionType.CANCEL;
@@ -30,38 +57,153 @@ import static com.example.account.type.TransactionType.USE;
 @RequiredArgsConstructor
 public class TransactionService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
     private final ValidService validService;
+    private final LockService lockService;
+    private final LedgerService ledgerService;
+    private final AccountCacheService accountCacheService;
+    private final JournalService journalService;
+    private final ShardRouter shardRouter;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.retry.max-attempts:3}")
+    private int batchMaxAttempts;
 
+    @AccountLock
+    @OptimisticRetry
     @Transactional
     public TransactionDTO useBalance(
-            long userId, String accountNumber, long amount
+            long userId, @AccountKey String accountNumber, long amount
     ) {
 
-        AccountUser user = accountUserRepository.findById(userId)
-                .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+        AccountSummary summary = getAccountSummary(accountNumber);
+
+        // 계좌 소유주가 맞으면 사용자는 존재하므로 불일치일 때만 사용자를 확인
+        if (summary.getOwnerId() != userId) {
+            throw new AccountException(accountUserRepository.existsById(userId)
+                    ? USER_ACCOUNT_UN_MATCH : USER_NOT_FOUND);
+        }
+        if (summary.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        // 소유주는 지연 로딩이라 계좌 한 건만 읽고, 소유주 확인은 아이디로 한다
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
 
-        validService.validateUseBalance(user, account, amount);
+        validService.validateUseBalance(userId, account, amount);
 
         account.useBalance(amount);
 
-        return TransactionDTO.fromEntity(
-                saveAndGetTransaction(USE, SUCCESS, account, amount));
+        Transaction transaction = saveAndGetTransaction(USE, SUCCESS, account, amount);
+        journalService.record(account, DEBIT, amount, transaction.getTransactionId());
+
+        return TransactionDTO.fromEntity(transaction);
     }
 
+    /**
+     * 락과 엔티티 로딩 없이 조건부 UPDATE 한 번으로 잔액을 차감한다.
+     * 차감되지 않았으면 계좌를 다시 읽어 {@link ValidService} 와 같은 에러로 바꿔준다.
+     */
     @Transactional
-    public void saveFailedUseTransaction(
-            String accountNumber, long amount
+    public TransactionDTO useBalanceAtomically(
+            long userId, @AccountKey String accountNumber, long amount
     ) {
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        int updated = accountRepository.debit(
+                accountNumber, userId, AccountStatus.IN_USE, amount, LocalDateTime.now());
+
+        AccountBalance accountBalance =
+                accountRepository.findBalanceByAccountNumber(accountNumber)
+                        .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        if (updated == 0) {
+            throw new AccountException(diagnoseDebitFailure(userId, accountBalance, amount));
+        }
+
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .transactionType(USE)
+                .transactionResultType(SUCCESS)
+                .account(accountRepository.getById(accountBalance.getAccountId()))
+                .amount(amount)
+                .balanceSnapshot(accountBalance.getBalance())
+                .transactionId(transactionIdGenerator.nextId())
+                .transactionAt(LocalDateTime.now())
+                .build());
+
+        // UPDATE 에서 올린 순번이 이 차감의 분개 순번
+        journalService.recordAll(Collections.singletonList(JournalEntry.builder()
+                .accountId(accountBalance.getAccountId())
+                .sequence(accountBalance.getJournalSequence())
+                .direction(DEBIT)
+                .amount(amount)
+                .balanceAfter(accountBalance.getBalance())
+                .transactionId(transaction.getTransactionId())
+                .build()));
+
+        return TransactionDTO.fromEntity(transaction, accountNumber);
+    }
+
+    private ErrorCode diagnoseDebitFailure(
+            long userId, AccountBalance accountBalance, long amount
+    ) {
+
+        if (accountBalance.getOwnerId() != userId) {
+            return accountUserRepository.existsById(userId)
+                    ? USER_ACCOUNT_UN_MATCH : USER_NOT_FOUND;
+        }
+
+        try {
+            validService.validateUseBalance(
+                    userId,
+                    accountBalance.getOwnerId(),
+                    accountBalance.getAccountStatus(),
+                    accountBalance.getBalance(),
+                    amount);
+        } catch (AccountException e) {
+            return e.getErrorCode();
+        }
+
+        // 차감 시점과 다시 읽은 시점 사이에 다른 거래가 잔액을 바꾼 경우
+        return ACCOUNT_CONCURRENT_UPDATE;
+    }
+
+    /**
+     * 실패 거래를 모아서 저장한다. 존재하지 않는 계좌의 기록은 건너뛴다.
+     * 현재 샤드의 계좌만 찾으므로 호출하는 쪽에서 샤드별로 나눠서 부른다.
+     */
+    @Transactional
+    public void saveFailedTransactions(List<FailedTransaction> failedTransactions) {
+
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(
+                        failedTransactions.stream()
+                                .map(FailedTransaction::getAccountNumber)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(failedTransactions.size());
+
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            Account account = accounts.get(failedTransaction.getAccountNumber());
+            if (account == null) {
+                continue;
+            }
+
+            Transaction transaction = buildTransaction(
+                    failedTransaction.getTransactionType(), FAIL,
+                    account, failedTransaction.getAmount());
+            transaction.setTransactionAt(failedTransaction.getFailedAt());
+            transactions.add(transaction);
+        }
 
-        saveAndGetTransaction(USE, FAIL, account, amount);
+        transactionRepository.saveAll(transactions);
     }
 
     private Transaction saveAndGetTransaction(
@@ -71,57 +213,334 @@ public class TransactionService {
             long amount
     ) {
 
-        return transactionRepository.save(
-                Transaction.builder()
-                        .transactionType(transactionType)
-                        .transactionResultType(transactionResultType)
-                        .account(account)
-                        .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID()
-                                .toString()
-                                .replace("-", ""))
-                        .transactionAt(LocalDateTime.now())
-                        .build()
-        );
+        return transactionRepository.save(buildTransaction(
+                transactionType, transactionResultType, account, amount));
     }
 
+    private Transaction buildTransaction(
+            TransactionType transactionType,
+            TransactionResultType transactionResultType,
+            Account account,
+            long amount
+    ) {
+
+        return Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(account.getBalance())
+                .transactionId(transactionIdGenerator.nextId())
+                .transactionAt(LocalDateTime.now())
+                .build();
+    }
+
+    @AccountLock
+    @OptimisticRetry
     @Transactional
     public TransactionDTO cancelBalance(
-            String transactionId, String accountNumber, long amount
+            String transactionId, @AccountKey String accountNumber, long amount
     ) {
 
-        Transaction transaction =
-                transactionRepository.findByTransactionId(transactionId)
-                        .orElseThrow(() ->
-                                new AccountException(TRANSACTION_NOT_FOUND));
+        long id = resolveTransactionId(transactionId);
+        Transaction transaction = transactionRepository.findByTransactionId(id)
+                .orElseThrow(() -> new AccountException(
+                        // 보관된 거래는 취소 가능 기간이 지난 거래다
+                        transactionArchiveRepository.existsByTransactionId(id)
+                                ? TOO_OLD_OLDER_TO_CANCEL : TRANSACTION_NOT_FOUND));
+
+        // 계좌를 읽기 전에 캐시된 계좌 아이디로 먼저 확인
+        validService.validateCancelBalance(
+                transaction, getAccountSummary(accountNumber).getAccountId(), amount);
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
 
-        validService.validateCancelBalance(transaction, account, amount);
-
         account.cancelBalance(amount);
 
-        return TransactionDTO.fromEntity(
-                saveAndGetTransaction(CANCEL, SUCCESS, account, amount)
-        );
+        Transaction cancelTransaction = buildTransaction(CANCEL, SUCCESS, account, amount);
+        cancelTransaction.setCancelledTransactionId(transaction.getTransactionId());
+
+        // 원거래 아이디에 유니크 인덱스가 있어 동시에 들어온 취소 중 하나만 저장된다
+        try {
+            cancelTransaction = transactionRepository.saveAndFlush(cancelTransaction);
+        } catch (DataIntegrityViolationException e) {
+            throw alreadyCancelledOrRethrow(e);
+        }
+
+        journalService.record(account, CREDIT, amount, cancelTransaction.getTransactionId());
+
+        return TransactionDTO.fromEntity(cancelTransaction);
     }
 
-    @Transactional
-    public void saveFailedCancelTransaction(String accountNumber, long amount) {
+    /**
+     * API 아이디를 거래 아이디로 바꾼다.
+     * db/manual/07 적용 이전의 32자리 아이디는 남겨둔 legacy_transaction_id 로 새 아이디를 찾는다.
+     */
+    private long resolveTransactionId(String transactionId) {
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        if (!TransactionIds.isLegacy(transactionId)) {
+            return TransactionIds.parse(transactionId);
+        }
+
+        return transactionRepository.findByLegacyTransactionId(transactionId)
+                .map(Transaction::getTransactionId)
+                .or(() -> transactionArchiveRepository
+                        .findByLegacyTransactionId(transactionId)
+                        .map(TransactionArchive::getTransactionId))
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+    }
+
+    /**
+     * 취소 유니크 인덱스 위반만 이미 취소된 거래로 본다.
+     * 다른 제약 위반(거래 아이디 중복 등)은 그대로 던져서 숨기지 않는다.
+     */
+    private RuntimeException alreadyCancelledOrRethrow(DataIntegrityViolationException e) {
+
+        return ConstraintViolations.isViolationOf(e, Transaction.CANCELLED_TRANSACTION_ID_INDEX)
+                ? new AccountException(TRANSACTION_ALREADY_CANCELLED) : e;
+    }
+
+    private AccountSummary getAccountSummary(String accountNumber) {
 
-        saveAndGetTransaction(CANCEL, FAIL, account, amount);
+        return accountCacheService.get(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
     }
 
     public TransactionDTO queryTransaction(String transactionId) {
 
-        return TransactionDTO.fromEntity(
-                transactionRepository.findByTransactionId(transactionId)
+        // db/manual/07 적용 이전에 발급된 32자리 아이디는 legacy_transaction_id 로 찾는다
+        boolean legacy = TransactionIds.isLegacy(transactionId);
+        long id = legacy ? 0L : TransactionIds.parse(transactionId);
+
+        // 거래 아이디로는 샤드를 알 수 없으므로 모든 샤드에서 찾는다.
+        // 최근 거래 테이블에 없으면 보관 테이블을 본다
+        return shardRouter.fanOut(shard ->
+                        (legacy
+                                ? transactionRepository.findWithAccountByLegacyTransactionId(transactionId)
+                                : transactionRepository.findWithAccountByTransactionId(id))
+                                .map(TransactionDTO::fromEntity)
+                                .orElseGet(() -> (legacy
+                                        ? transactionArchiveRepository.findByLegacyTransactionId(transactionId)
+                                        : transactionArchiveRepository.findByTransactionId(id))
+                                        .map(TransactionDTO::fromArchive)
+                                        .orElse(null)))
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+    }
+
+    /**
+     * 계좌의 거래 내역을 최신순으로 size 건씩 조회한다.
+     * 이전 페이지의 마지막 거래 뒤부터 읽으므로 몇 번째 페이지든 비용이 같다.
+     */
+    public TransactionHistoryDTO queryTransactionHistory(
+            @AccountKey String accountNumber, String cursor, int size,
+            TransactionType transactionType,
+            TransactionResultType transactionResultType
+    ) {
+
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new AccountException(INVALID_REQUEST);
+        }
+
+        TransactionCursor after = TransactionCursor.decode(cursor);
+
+        // 다음 페이지 유무 확인을 위해 한 건 더 읽는다
+        List<Transaction> transactions = transactionRepository.findHistory(
+                getAccountSummary(accountNumber).getAccountId(),
+                transactionType,
+                transactionResultType,
+                after.getTransactionAt(),
+                after.getId(),
+                PageRequest.of(0, size + 1));
+
+        boolean hasNext = transactions.size() > size;
+        List<Transaction> page = hasNext ? transactions.subList(0, size) : transactions;
+        Transaction last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return TransactionHistoryDTO.builder()
+                .transactions(page.stream()
+                        .map(transaction -> TransactionDTO.fromEntity(transaction, accountNumber))
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNext
+                        ? new TransactionCursor(last.getTransactionAt(), last.getId()).encode()
+                        : null)
+                .build();
+    }
+
+    /**
+     * 여러 건의 사용/취소를 한 번에 처리한다.
+     * 계좌별로 묶어 락과 트랜잭션을 한 번씩만 잡고, 거래 내역은 모아서 저장한다.
+     * 건별로 성공/실패가 갈리며 실패한 건은 FAIL 거래로 기록된다.
+     */
+    public List<BatchTransaction.Result> batchTransaction(
+            List<BatchTransaction.Item> items
+    ) {
+
+        BatchTransaction.Result[] results = new BatchTransaction.Result[items.size()];
+        Map<String, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            indexesByAccount.computeIfAbsent(
+                    items.get(i).getAccountNumber(),
+                    accountNumber -> new ArrayList<>()).add(i);
+        }
+
+        indexesByAccount.forEach((accountNumber, indexes) ->
+                shardRouter.run(accountNumber, () -> {
+                    try {
+                        if (ledgerService.isManaged(accountNumber)) {
+                            applyLedgerBatch(items, indexes, results);
+                        } else {
+                            applyAccountBatch(accountNumber, items, indexes, results);
+                        }
+                    } catch (AccountException e) {
+                        // 락 획득 실패, 계좌 없음 등 계좌 단위의 실패
+                        indexes.forEach(index -> results[index] = BatchTransaction.Result
+                                .fail(index, items.get(index), e.getErrorCode()));
+                    }
+                }));
+
+        return Arrays.asList(results);
+    }
+
+    private void applyAccountBatch(
+            String accountNumber,
+            List<BatchTransaction.Item> items,
+            List<Integer> indexes,
+            BatchTransaction.Result[] results
+    ) {
+
+        Lock lock = lockService.lock(accountNumber, -1L, -1L);
+
+        try {
+            // 배치 경로에는 @OptimisticRetry 가 없으므로 락 안에서 직접 다시 시도한다.
+            // 매 시도마다 계좌를 새로 읽고 결과도 새로 채운다
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    applyAccountBatchOnce(accountNumber, items, indexes, results);
+                    return;
+                } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                    log.warn("batch optimistic lock conflict: account={}, attempt={}/{}",
+                            accountNumber, attempt, batchMaxAttempts);
+                    if (attempt >= batchMaxAttempts) {
+                        throw new AccountException(ACCOUNT_CONCURRENT_UPDATE);
+                    }
+                }
+            }
+        } catch (DataIntegrityViolationException e) {
+            // 확인 이후 다른 경로에서 먼저 취소된 경우, 계좌 단위로 실패 처리
+            throw alreadyCancelledOrRethrow(e);
+        } finally {
+            lockService.unlock(lock);
+        }
+    }
+
+    private void applyAccountBatchOnce(
+            String accountNumber,
+            List<BatchTransaction.Item> items,
+            List<Integer> indexes,
+            BatchTransaction.Result[] results
+    ) {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+            List<Transaction> transactions = new ArrayList<>(indexes.size());
+            Set<Long> cancelledTransactionIds = new HashSet<>();
+
+            for (int index : indexes) {
+                BatchTransaction.Item item = items.get(index);
+                Transaction transaction;
+                AccountException failure = null;
+
+                try {
+                    Long cancelledTransactionId =
+                            applyItem(item, account, cancelledTransactionIds);
+                    transaction = buildTransaction(item.getTransactionType(),
+                            SUCCESS, account, item.getAmount());
+                    transaction.setCancelledTransactionId(cancelledTransactionId);
+                    journalService.record(account,
+                            item.getTransactionType() == USE ? DEBIT : CREDIT,
+                            item.getAmount(), transaction.getTransactionId());
+                } catch (AccountException e) {
+                    failure = e;
+                    transaction = buildTransaction(item.getTransactionType(),
+                            FAIL, account, item.getAmount());
+                }
+
+                transactions.add(transaction);
+                results[index] = BatchTransaction.Result.from(index,
+                        TransactionDTO.fromEntity(transaction),
+                        failure == null ? null : failure.getErrorCode());
+            }
+
+            transactionRepository.saveAll(transactions);
+        });
+    }
+
+    /**
+     * 항목을 계좌에 반영하고, 취소인 경우 원거래 아이디를 돌려준다.
+     */
+    private Long applyItem(
+            BatchTransaction.Item item, Account account, Set<Long> cancelledTransactionIds
+    ) {
+
+        if (item.getTransactionType() == USE) {
+            validService.validateUseBalance(
+                    item.getUserId(),
+                    account.getAccountUser().getId(),
+                    account.getAccountStatus(),
+                    account.getBalance(),
+                    item.getAmount());
+
+            account.useBalance(item.getAmount());
+
+            return null;
+        }
+
+        Transaction transaction =
+                transactionRepository.findByTransactionId(
+                                resolveTransactionId(item.getTransactionId()))
                         .orElseThrow(() ->
-                                new AccountException(TRANSACTION_NOT_FOUND)));
+                                new AccountException(TRANSACTION_NOT_FOUND));
+
+        validService.validateCancelBalance(transaction, account, item.getAmount());
+
+        // 한 배치에 같은 거래가 두 번 있거나 이미 취소된 거래
+        if (!cancelledTransactionIds.add(transaction.getTransactionId())
+                || transactionRepository.existsByCancelledTransactionId(
+                        transaction.getTransactionId())) {
+            throw new AccountException(TRANSACTION_ALREADY_CANCELLED);
+        }
+
+        account.cancelBalance(item.getAmount());
+
+        return transaction.getTransactionId();
+    }
+
+    private void applyLedgerBatch(
+            List<BatchTransaction.Item> items,
+            List<Integer> indexes,
+            BatchTransaction.Result[] results
+    ) {
+
+        for (int index : indexes) {
+            BatchTransaction.Item item = items.get(index);
+
+            try {
+                TransactionDTO transactionDTO = item.getTransactionType() == USE
+                        ? ledgerService.useBalance(item.getUserId(),
+                                item.getAccountNumber(), item.getAmount())
+                        : ledgerService.cancelBalance(item.getTransactionId(),
+                                item.getAccountNumber(), item.getAmount());
+
+                results[index] = BatchTransaction.Result.from(index, transactionDTO, null);
+            } catch (AccountException e) {
+                results[index] = BatchTransaction.Result.fail(index, item, e.getErrorCode());
+            }
+        }
     }
 }
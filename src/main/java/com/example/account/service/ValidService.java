@@ -4,15 +4,12 @@ import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
 import com.example.account.exception.AccountException;
-import com.example.account.repository.AccountRepository;
 import com.example.account.type.AccountStatus;
-import com.example.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Objects;
 
 import static com.example.account.type.ErrorCode.*;
 
@@ -21,16 +18,10 @@ import static com.example.account.type.ErrorCode.*;
 @RequiredArgsConstructor
 public class ValidService {
 
-    private final AccountRepository accountRepository;
+    // 계좌 개설 한도는 AccountUserRepository.incrementAccountCount 에서 확인한다
+    static final int MAX_ACCOUNT_PER_USER = 10;
 
     // AccountService
-    void validateCreateAccount(AccountUser accountUser) {
-
-        if (accountRepository.countByAccountUser(accountUser) >= 10) {
-            throw new AccountException(ErrorCode.MAX_ACCOUNT_PER_USER_10);
-        }
-    }
-
     void validateDeleteAccount(AccountUser accountUser, Account account) {
 
         if (accountUser.getId() != account.getAccountUser().getId()) {
@@ -47,16 +38,29 @@ public class ValidService {
 
     // TransactionService
     void validateUseBalance(
-            AccountUser user, Account account, long amount
+            long userId, Account account, long amount
+    ) {
+
+        validateUseBalance(
+                userId,
+                account.getAccountUser().getId(),
+                account.getAccountStatus(),
+                account.getBalance(),
+                amount);
+    }
+
+    void validateUseBalance(
+            long userId, long ownerId, AccountStatus accountStatus,
+            long balance, long amount
     ) {
 
-        if (user.getId() != account.getAccountUser().getId()) {
+        if (userId != ownerId) {
             throw new AccountException(USER_ACCOUNT_UN_MATCH);
         }
-        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+        if (accountStatus != AccountStatus.IN_USE) {
             throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
         }
-        if (account.getBalance() < amount) {
+        if (balance < amount) {
             throw new AccountException(AMOUNT_EXCEED_BALANCE);
         }
     }
@@ -65,13 +69,33 @@ public class ValidService {
             Transaction transaction, Account account, long amount
     ) {
 
-        if (!Objects.equals(transaction.getAccount().getId(), account.getId())) {
+        validateCancelBalance(transaction, account.getId(), amount);
+    }
+
+    void validateCancelBalance(
+            Transaction transaction, long accountId, long amount
+    ) {
+
+        validateCancelBalance(
+                transaction.getAccount().getId(),
+                transaction.getAmount(),
+                transaction.getTransactionAt(),
+                accountId,
+                amount);
+    }
+
+    void validateCancelBalance(
+            long transactionAccountId, long transactionAmount,
+            LocalDateTime transactionAt, long accountId, long amount
+    ) {
+
+        if (transactionAccountId != accountId) {
             throw new AccountException(TRANSACTION_ACCOUNT_UN_MATCH);
         }
-        if (transaction.getAmount() != amount) {
+        if (transactionAmount != amount) {
             throw new AccountException(CANCEL_MOST_FULLY);
         }
-        if (transaction.getTransactionAt().isBefore(LocalDateTime.now().minusYears(1))) {
+        if (transactionAt.isBefore(LocalDateTime.now().minusYears(1))) {
             throw new AccountException(TOO_OLD_OLDER_TO_CANCEL);
         }
     }
@@ -0,0 +1,58 @@
+package com.example.account.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 사용할 샤드 번호.
+ * 지정하지 않으면 {@link ShardRoutingDataSource} 는 0번 샤드를 사용한다.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+
+        Integer previous = enter(shard);
+
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(int shard, Runnable action) {
+
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 샤드를 바꾸고 이전 샤드를 돌려준다. 반드시 {@link #restore(Integer)} 와 짝을 맞춘다.
+     */
+    public static Integer enter(int shard) {
+
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.account.shard;
+
+import com.example.account.exception.AccountException;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static com.example.account.type.ErrorCode.SHARD_QUERY_TIMEOUT;
+
+/**
+ * 계좌번호를 일관된 해시(consistent hashing)로 샤드에 배정하고,
+ * 계좌번호로 정할 수 없는 조회는 모든 샤드에 병렬로 보낸다.
+ * 샤드마다 가상 노드를 여러 개 두어 샤드를 늘릴 때 옮겨지는 계좌가 1/N 정도가 되도록 한다.
+ * 샤딩을 끄면 샤드는 1개(기본 데이터소스)다.
+ * 팬아웃의 0번 샤드는 호출 스레드에서 실행하고 나머지만 풀로 보낸다.
+ * 풀은 요청 동시성에 맞춰 두고, 큐가 차면 호출 스레드에서 순서대로 실행한다.
+ */
+@Component
+public class ShardRouter {
+
+    // 배치 작업처럼 오래 걸려도 되는 팬아웃에 쓴다
+    public static final long NO_TIMEOUT = 0L;
+
+    private static final int VIRTUAL_NODES = 160;
+    private static final int DEFAULT_FAN_OUT_THREADS = 16;
+    private static final int DEFAULT_FAN_OUT_QUEUE_CAPACITY = 256;
+    private static final long DEFAULT_FAN_OUT_TIMEOUT = 3000L;
+
+    @Getter
+    private final int shardCount;
+
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final ThreadPoolExecutor fanOutExecutor;
+    private final long fanOutTimeout;
+
+    @Autowired
+    public ShardRouter(
+            @Value("${account.shard.enabled:false}") boolean enabled,
+            @Value("${account.shard.urls:}") String[] urls,
+            @Value("${account.shard.fan-out-threads:64}") int fanOutThreads,
+            @Value("${account.shard.fan-out-queue-capacity:256}") int fanOutQueueCapacity,
+            @Value("${account.shard.fan-out-timeout:3000}") long fanOutTimeout
+    ) {
+        this(enabled ? urls.length : 1, fanOutThreads, fanOutQueueCapacity, fanOutTimeout);
+    }
+
+    public ShardRouter(int shardCount) {
+        this(shardCount, DEFAULT_FAN_OUT_THREADS,
+                DEFAULT_FAN_OUT_QUEUE_CAPACITY, DEFAULT_FAN_OUT_TIMEOUT);
+    }
+
+    public ShardRouter(
+            int shardCount, int fanOutThreads, int fanOutQueueCapacity, long fanOutTimeout
+    ) {
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shard count must be positive: " + shardCount);
+        }
+
+        this.shardCount = shardCount;
+        this.fanOutTimeout = fanOutTimeout;
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+
+        fanOutExecutor = shardCount == 1 ? null : newFanOutExecutor(
+                fanOutThreads, fanOutQueueCapacity);
+    }
+
+    private static ThreadPoolExecutor newFanOutExecutor(int threads, int queueCapacity) {
+
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "shard-fan-out-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 큐까지 차면 기다리지 않고 호출 스레드에서 실행한다
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    public int resolve(String accountNumber) {
+
+        if (shardCount == 1) {
+            return 0;
+        }
+
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(accountNumber));
+
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    public <T> T call(String accountNumber, Supplier<T> action) {
+        return ShardContext.call(resolve(accountNumber), action);
+    }
+
+    public void run(String accountNumber, Runnable action) {
+        ShardContext.run(resolve(accountNumber), action);
+    }
+
+    /**
+     * 모든 샤드에서 task 를 실행하고 샤드 번호 순서대로 결과를 돌려준다.
+     * fan-out-timeout 안에 모든 샤드의 결과가 오지 않으면 SHARD_QUERY_TIMEOUT 으로 실패한다.
+     */
+    public <T> List<T> fanOut(IntFunction<T> task) {
+        return fanOut(task, fanOutTimeout);
+    }
+
+    /**
+     * @param timeout 모든 샤드의 결과를 기다리는 최대 시간(ms), {@link #NO_TIMEOUT} 이면 끝날 때까지 기다린다
+     */
+    public <T> List<T> fanOut(IntFunction<T> task, long timeout) {
+
+        if (shardCount == 1) {
+            return Collections.singletonList(ShardContext.call(0, () -> task.apply(0)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount - 1);
+        for (int shard = 1; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> ShardContext.call(target, () -> task.apply(target)),
+                    fanOutExecutor));
+        }
+
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            results.add(ShardContext.call(0, () -> task.apply(0)));
+            for (CompletableFuture<T> future : futures) {
+                results.add(timeout == NO_TIMEOUT ? future.get() : future.get(
+                        Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            throw new AccountException(SHARD_QUERY_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(SHARD_QUERY_TIMEOUT);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // 실패나 시간 초과 시 남은 결과는 기다리지 않는다
+            futures.forEach(future -> future.cancel(false));
+        }
+
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    // FNV-1a 후 murmur3 finalizer 로 비트를 섞는다
+    static long hash(String key) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe1a85ec3L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
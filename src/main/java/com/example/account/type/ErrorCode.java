@@ -19,7 +19,15 @@ public enum ErrorCode {
     TRANSACTION_NOT_FOUND("거래 내역 없음"),
     TRANSACTION_ACCOUNT_UN_MATCH("거래 내역과 계좌 불일치"),
     CANCEL_MOST_FULLY("거래 내역 부분 취소 불가"),
-    TOO_OLD_OLDER_TO_CANCEL("취소 가능 기간 만료(1년)");
+    TOO_OLD_OLDER_TO_CANCEL("취소 가능 기간 만료(1년)"),
+    TRANSACTION_ALREADY_CANCELLED("이미 취소된 거래"),
+    ACCOUNT_TRANSACTION_LOCK("해당 계좌는 다른 거래가 진행 중"),
+    IDEMPOTENCY_REQUEST_IN_PROGRESS("같은 멱등키의 요청이 처리 중"),
+    IDEMPOTENCY_KEY_REUSED("다른 요청에 이미 사용된 멱등키"),
+    ACCOUNT_CONCURRENT_UPDATE("다른 거래와 동시에 잔액이 변경됨"),
+    SHARD_QUERY_TIMEOUT("샤드 조회 시간 초과"),
+    ACCOUNT_LEDGER_STALLED("원장 기록이 밀려 거래를 받을 수 없음"),
+    LEDGER_OWNER_UNAVAILABLE("원장 인스턴스 소유권 문제로 거래를 받을 수 없음");
 
     private final String description;
 }
@@ -1,14 +1,14 @@
-insert into account_user(id, username, created_at, updated_at)
-values (1, 'A', now(), now());
+insert into account_user(id, username, account_count, created_at, updated_at)
+values (1, 'A', 0, now(), now());
 
-insert into account_user(id, username, created_at, updated_at)
-values (2, 'B', now(), now());
+insert into account_user(id, username, account_count, created_at, updated_at)
+values (2, 'B', 0, now(), now());
 
-insert into account_user(id, username, created_at, updated_at)
-values (3, 'C', now(), now());
+insert into account_user(id, username, account_count, created_at, updated_at)
+values (3, 'C', 0, now(), now());
 
-insert into account_user(id, username, created_at, updated_at)
-values (4, 'D', now(), now());
+insert into account_user(id, username, account_count, created_at, updated_at)
+values (4, 'D', 0, now(), now());
 
-insert into account_user(id, username, created_at, updated_at)
-values (5, 'E', now(), now());
+insert into account_user(id, username, account_count, created_at, updated_at)
+values (5, 'E', 0, now(), now());
@@ -0,0 +1,94 @@
+package com.example.account.aop;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private Signature signature;
+
+    private MeterRegistry meterRegistry;
+
+    private MetricsAspect metricsAspect;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricsAspect = new MetricsAspect(meterRegistry);
+    }
+
+    @Test
+    void timeService_RecordsErrorCodeAsOutcome() throws Throwable {
+        // given
+        given(pjp.getSignature()).willReturn(signature);
+        given(signature.getDeclaringType()).willReturn(MetricsAspectTest.class);
+        given(signature.getName()).willReturn("useBalance");
+        given(pjp.proceed()).willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        // when
+        assertThrows(AccountException.class, () -> metricsAspect.timeService(pjp));
+
+        // then
+        assertEquals(1, meterRegistry.get(MetricsAspect.SERVICE_METRIC)
+                .tag("method", "useBalance")
+                .tag("outcome", "AMOUNT_EXCEED_BALANCE")
+                .timer().count());
+    }
+
+    @Test
+    void countResult_Success() throws Throwable {
+        // given
+        given(pjp.proceed()).willReturn(UseBalance.Response.builder()
+                .transactionResult(TransactionResultType.SUCCESS)
+                .build());
+
+        // when
+        metricsAspect.countResult(pjp);
+
+        // then
+        assertEquals(1, meterRegistry.get(MetricsAspect.TRANSACTION_METRIC)
+                .tag("type", "USE")
+                .tag("result", "SUCCESS")
+                .counter().count());
+    }
+
+    @Test
+    void countResult_Fail() throws Throwable {
+        // given
+        given(pjp.getArgs()).willReturn(new Object[]{
+                "idempotencyKey",
+                new UseBalance.Request(1L, "1234567890", 1000L)});
+        given(pjp.proceed()).willThrow(new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        // when
+        assertThrows(AccountException.class, () -> metricsAspect.countResult(pjp));
+
+        // then
+        assertEquals(1, meterRegistry.get(MetricsAspect.ERROR_METRIC)
+                .tag("code", "ACCOUNT_NOT_FOUND")
+                .counter().count());
+        assertEquals(1, meterRegistry.get(MetricsAspect.TRANSACTION_METRIC)
+                .tag("type", "USE")
+                .tag("result", "FAIL")
+                .counter().count());
+    }
+}
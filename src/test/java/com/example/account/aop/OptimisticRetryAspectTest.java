@@ -0,0 +1,110 @@
+package com.example.account.aop;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryAspectTest {
+
+    @Mock
+    private ProceedingJoinPoint pjp;
+
+    @Mock
+    private MethodSignature signature;
+
+    private MeterRegistry meterRegistry;
+
+    private OptimisticRetryAspect optimisticRetryAspect;
+
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticRetryAspect = new OptimisticRetryAspect(meterRegistry);
+        ReflectionTestUtils.setField(optimisticRetryAspect, "defaultMaxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticRetryAspect, "backoff", 1L);
+        ReflectionTestUtils.setField(optimisticRetryAspect, "maxBackoff", 2L);
+
+        Method method = getClass().getDeclaredMethod("useBalance", String.class);
+        optimisticRetry = method.getAnnotation(OptimisticRetry.class);
+
+        given(pjp.getSignature()).willReturn(signature);
+        given(signature.getName()).willReturn("useBalance");
+        lenient().when(signature.getMethod()).thenReturn(method);
+        lenient().when(pjp.getArgs()).thenReturn(new Object[]{"1234567890"});
+    }
+
+    @Test
+    void retry_SuccessAfterConflict() throws Throwable {
+        // given
+        given(pjp.proceed())
+                .willThrow(conflict())
+                .willReturn("result");
+
+        // when
+        Object result = optimisticRetryAspect.aroundMethod(pjp, optimisticRetry);
+
+        // then
+        assertEquals("result", result);
+        verify(pjp, times(2)).proceed();
+        assertEquals(1, meterRegistry.get("account.optimistic_lock.retry")
+                .tag("method", "useBalance").counter().count());
+    }
+
+    @Test
+    void retry_Exhausted() throws Throwable {
+        // given
+        given(pjp.proceed()).willThrow(conflict());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryAspect.aroundMethod(pjp, optimisticRetry));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_CONCURRENT_UPDATE, exception.getErrorCode());
+        verify(pjp, times(3)).proceed();
+        assertEquals(1, meterRegistry.get("account.optimistic_lock.conflict")
+                .tag("method", "useBalance").counter().count());
+    }
+
+    @Test
+    void retry_OtherExceptionNotRetried() throws Throwable {
+        // given
+        given(pjp.proceed()).willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryAspect.aroundMethod(pjp, optimisticRetry));
+
+        // then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(pjp, times(1)).proceed();
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Account", 1L);
+    }
+
+    @OptimisticRetry
+    @SuppressWarnings("unused")
+    private void useBalance(@AccountKey String accountNumber) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.account.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LazyRedissonClientTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<Object> bucket;
+
+    @Test
+    void create_DoesNotConnectUntilUsed() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        RedissonClient client = LazyRedissonClient.create(() -> {
+            attempts.incrementAndGet();
+            return redissonClient;
+        }, 5000L);
+        client.shutdown();
+
+        // then
+        assertEquals(0, attempts.get());
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    void connectFailure_WaitsReconnectInterval() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        RedissonClient client = LazyRedissonClient.create(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("connection refused");
+        }, 60_000L);
+
+        // when
+        // then
+        assertThrows(RedisConnectionException.class, () -> client.getBucket("key"));
+        assertThrows(RedisConnectionException.class, () -> client.getBucket("key"));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void connectFailure_RetriesAndDelegates() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        RedissonClient client = LazyRedissonClient.create(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RedisConnectionException("connection refused");
+            }
+            return redissonClient;
+        }, 0L);
+        given(redissonClient.getBucket("key")).willReturn(bucket);
+
+        // when
+        assertThrows(RedisConnectionException.class, () -> client.getBucket("key"));
+        Object result = client.getBucket("key");
+
+        // then
+        assertSame(bucket, result);
+        assertEquals(2, attempts.get());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.account.controller;
 
 import com.example.account.domain.Account;
 import com.example.account.dto.AccountDTO;
+import com.example.account.dto.AccountInfo;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
 import com.example.account.type.AccountStatus;
@@ -16,6 +17,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -88,4 +90,26 @@ class AccountControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void successGetAccount() throws Exception {
+
+        given(accountService.getAccount(anyLong()))
+                .willReturn(Arrays.asList(
+                        AccountInfo.builder()
+                                .accountNumber("1234567890")
+                                .balance(1000L)
+                                .build(),
+                        AccountInfo.builder()
+                                .accountNumber("1111111111")
+                                .balance(2000L)
+                                .build()));
+
+        mockMvc.perform(get("/account/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$[0].balance").value(1000))
+                .andExpect(jsonPath("$[1].accountNumber").value("1111111111"))
+                .andDo(print());
+    }
+
 }
\ No newline at end of file
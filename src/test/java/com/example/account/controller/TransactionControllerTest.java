@@ -3,10 +3,15 @@ package com.example.account.controller;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.TransactionDTO;
 import com.example.account.dto.UseBalance;
+import com.example.account.service.FailedTransactionRecorder;
+import com.example.account.service.IdempotencyService;
+import com.example.account.service.LedgerService;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
 import com.example.account.type.TransactionResultType;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -15,9 +20,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
 import static com.example.account.type.TransactionResultType.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
@@ -32,12 +39,31 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private LedgerService ledgerService;
+
+    @MockBean
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        // 멱등키 처리는 그대로 요청을 실행하도록 설정
+        given(idempotencyService.execute(any(), anyString(), anyString(), any(), any()))
+                .willAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+    }
+
     @Test
     void successUseBalance() throws Exception {
 
@@ -0,0 +1,72 @@
+package com.example.account.dto;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdsTest {
+
+    @Test
+    void format_RoundTrip() {
+        // given
+        long[] ids = {0L, 1L, 481_923_744_366_120_960L, Long.MAX_VALUE};
+
+        // when
+        // then
+        for (long id : ids) {
+            String text = TransactionIds.format(id);
+            assertEquals(13, text.length());
+            assertEquals(id, TransactionIds.parse(text));
+        }
+    }
+
+    @Test
+    void format_KeepsOrder() {
+        // given
+        String smaller = TransactionIds.format(481_923_744_366_120_960L);
+        String larger = TransactionIds.format(481_923_744_366_120_961L);
+
+        // when
+        // then
+        assertTrue(smaller.compareTo(larger) < 0);
+    }
+
+    @Test
+    void parse_LenientCharacters() {
+        // given
+        String text = TransactionIds.format(481_923_744_366_120_960L);
+
+        // when
+        // then
+        assertEquals(481_923_744_366_120_960L, TransactionIds.parse(text.toLowerCase()));
+        assertEquals(TransactionIds.parse("0000000000001"), TransactionIds.parse("OOOOOOOOOOOOl"));
+    }
+
+    @Test
+    void isLegacy() {
+        // given
+        // when
+        // then
+        assertTrue(TransactionIds.isLegacy("b030d94e8657429a8d6b9b550f923ac5"));
+        assertFalse(TransactionIds.isLegacy(TransactionIds.format(481_923_744_366_120_960L)));
+        assertFalse(TransactionIds.isLegacy("b030d94e8657429a8d6b9b550f923ax5"));
+        assertFalse(TransactionIds.isLegacy(null));
+    }
+
+    @Test
+    void parse_InvalidFormat() {
+        // given
+        String[] invalid = {null, "", "b030d94e8657429a8d6b9b550f923ac5",
+                "000000000000U", "8000000000000"};
+
+        // when
+        // then
+        for (String text : invalid) {
+            AccountException exception = assertThrows(AccountException.class,
+                    () -> TransactionIds.parse(text));
+            assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
+        }
+    }
+}
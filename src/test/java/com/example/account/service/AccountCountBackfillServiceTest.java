@@ -0,0 +1,87 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountCount;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCountBackfillServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ShardRouter shardRouter;
+
+    private AccountCountBackfillService accountCountBackfillService;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter = new ShardRouter(2);
+        accountCountBackfillService = new AccountCountBackfillService(
+                accountRepository, accountUserRepository, shardRouter, transactionTemplate);
+        ReflectionTestUtils.setField(accountCountBackfillService, "batchSize", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.shutdown();
+    }
+
+    @Test
+    void backfill_RecountsAllShardsUnderUserLock() {
+        // given
+        given(accountRepository.countByUser()).willReturn(Arrays.asList(
+                new AccountCount(1L, 3L),
+                new AccountCount(2L, 1L)));
+        // 처음 센 뒤 사용자 1 의 계좌가 하나 더 개설되었다
+        given(accountRepository.countByUserIn(Collections.singletonList(1L)))
+                .willReturn(Collections.singletonList(new AccountCount(1L, 4L)));
+        given(accountRepository.countByUserIn(Collections.singletonList(2L)))
+                .willReturn(Collections.singletonList(new AccountCount(2L, 1L)));
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> invocation
+                .<TransactionCallback<Integer>>getArgument(0)
+                .doInTransaction(null));
+        // 두 샤드가 같은 결과를 돌려주므로 합은 두 배가 된다
+        given(accountUserRepository.raiseAccountCount(1L, 8)).willReturn(1);
+        given(accountUserRepository.raiseAccountCount(2L, 2)).willReturn(0);
+
+        // when
+        int updated = accountCountBackfillService.backfill();
+
+        // then
+        assertEquals(1, updated);
+        verify(accountRepository, times(2)).countByUser();
+        InOrder inOrder = inOrder(accountUserRepository, accountRepository);
+        inOrder.verify(accountUserRepository).lockByIdIn(Collections.singletonList(1L));
+        inOrder.verify(accountRepository, times(2)).countByUserIn(Collections.singletonList(1L));
+        inOrder.verify(accountUserRepository).raiseAccountCount(1L, 8);
+        verify(accountUserRepository, times(1)).raiseAccountCount(2L, 2);
+        // 배치 크기 1 이므로 사용자마다 따로 커밋한다
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+}
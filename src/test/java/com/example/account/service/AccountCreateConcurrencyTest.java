@@ -0,0 +1,74 @@
+package com.example.account.service;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 같은 사용자의 계좌를 동시에 개설해도 한도(10개)를 넘지 않는지 확인한다.
+ */
+@SpringBootTest
+class AccountCreateConcurrencyTest {
+
+    private static final long USER_ID = 2L;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    @Test
+    void createAccount_ParallelCreates_StopAtLimit() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ErrorCode>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    accountService.createAccount(USER_ID, 0L);
+                    return null;
+                } catch (AccountException e) {
+                    return e.getErrorCode();
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<ErrorCode> future : futures) {
+            ErrorCode errorCode = future.get();
+            if (errorCode == null) {
+                succeeded++;
+            } else {
+                assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, errorCode);
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(ValidService.MAX_ACCOUNT_PER_USER, succeeded);
+        assertEquals(ValidService.MAX_ACCOUNT_PER_USER, accountService.getAccount(USER_ID).size());
+        assertEquals(ValidService.MAX_ACCOUNT_PER_USER, accountUserRepository.findById(USER_ID)
+                .map(AccountUser::getAccountCount)
+                .orElseThrow());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.account.service;
+
+import com.example.account.domain.JournalEntry;
+import com.example.account.dto.AccountListItem;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.JournalDirection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountListCacheServiceTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private AccountListCacheService accountListCacheService;
+
+    @BeforeEach
+    void setUp() {
+        given(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).willReturn(topic);
+
+        accountListCacheService = new AccountListCacheService(
+                accountRepository, accountUserRepository, new ShardRouter(1),
+                redissonClient, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(accountListCacheService, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(accountListCacheService, "localTtl", 60L);
+        accountListCacheService.init();
+    }
+
+    @Test
+    void get_LoadsOnceWithSingleQuery() {
+        // given
+        given(accountRepository.findListItemsByUserId(USER_ID))
+                .willReturn(Arrays.asList(item(10L, "1000000000", 5000L, 3L),
+                        item(11L, "1000000001", 0L, 0L)));
+
+        // when
+        accountListCacheService.get(USER_ID);
+        List<AccountListItem> items = accountListCacheService.get(USER_ID).orElseThrow();
+
+        // then
+        assertEquals(2, items.size());
+        verify(accountRepository, times(1)).findListItemsByUserId(USER_ID);
+        verify(accountUserRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void get_UserNotFound_NotCached() {
+        // given
+        given(accountRepository.findListItemsByUserId(USER_ID))
+                .willReturn(Collections.emptyList());
+        given(accountUserRepository.existsById(USER_ID)).willReturn(false);
+
+        // when
+        Optional<List<AccountListItem>> first = accountListCacheService.get(USER_ID);
+        Optional<List<AccountListItem>> second = accountListCacheService.get(USER_ID);
+
+        // then
+        assertFalse(first.isPresent());
+        assertFalse(second.isPresent());
+        verify(accountRepository, times(2)).findListItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void balanceChanged_UpdatesInPlace() {
+        // given
+        given(accountRepository.findListItemsByUserId(USER_ID))
+                .willReturn(Collections.singletonList(item(10L, "1000000000", 5000L, 3L)));
+        accountListCacheService.get(USER_ID);
+
+        // when
+        // 트랜잭션 밖이라 바로 반영된다
+        accountListCacheService.balanceChanged(Arrays.asList(
+                entry(10L, 4L, 4000L), entry(10L, 5L, 3000L)));
+
+        // then
+        AccountListItem item = accountListCacheService.get(USER_ID).orElseThrow().get(0);
+        assertEquals(3000L, item.getBalance());
+        assertEquals(5L, item.getJournalSequence());
+        verify(accountRepository, times(1)).findListItemsByUserId(USER_ID);
+        verify(topic, times(1)).publishAsync("10:5:3000");
+    }
+
+    @Test
+    void apply_IgnoresOlderSequence() {
+        // given
+        given(accountRepository.findListItemsByUserId(USER_ID))
+                .willReturn(Collections.singletonList(item(10L, "1000000000", 5000L, 3L)));
+        accountListCacheService.get(USER_ID);
+
+        // when
+        // 다른 노드에서 늦게 도착한 변경
+        accountListCacheService.apply(10L, 6000L, 2L);
+
+        // then
+        assertEquals(5000L, accountListCacheService.get(USER_ID).orElseThrow()
+                .get(0).getBalance());
+    }
+
+    @Test
+    void evict_ReloadsAndNotifiesOtherNodes() {
+        // given
+        given(accountRepository.findListItemsByUserId(USER_ID))
+                .willReturn(Collections.singletonList(item(10L, "1000000000", 5000L, 3L)));
+        accountListCacheService.get(USER_ID);
+
+        // when
+        accountListCacheService.evict(USER_ID);
+        accountListCacheService.get(USER_ID);
+
+        // then
+        verify(accountRepository, times(2)).findListItemsByUserId(USER_ID);
+        verify(topic, times(1)).publish(String.valueOf(USER_ID));
+    }
+
+    @Test
+    void init_RedisDown_SubscribesLater() {
+        // given
+        given(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE)))
+                .willThrow(new RedisConnectionException("redis down"))
+                .willReturn(topic);
+        AccountListCacheService service = new AccountListCacheService(
+                accountRepository, accountUserRepository, new ShardRouter(1),
+                redissonClient, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "localMaxSize", 100L);
+        ReflectionTestUtils.setField(service, "localTtl", 60L);
+
+        // when
+        service.init();
+        service.subscribe();
+        service.subscribe();
+
+        // then
+        // setUp 에서 구독한 2 번 + 다시 구독한 2 번
+        verify(topic, times(4)).addListener(eq(String.class), any());
+    }
+
+    private static AccountListItem item(
+            long accountId, String accountNumber, long balance, long journalSequence
+    ) {
+
+        return AccountListItem.builder()
+                .accountId(accountId)
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .journalSequence(journalSequence)
+                .build();
+    }
+
+    private static JournalEntry entry(long accountId, long sequence, long balanceAfter) {
+
+        return JournalEntry.builder()
+                .accountId(accountId)
+                .sequence(sequence)
+                .direction(JournalDirection.DEBIT)
+                .amount(1000L)
+                .balanceAfter(balanceAfter)
+                .build();
+    }
+}
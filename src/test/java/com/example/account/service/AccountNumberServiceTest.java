@@ -0,0 +1,123 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import com.example.account.shard.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberServiceTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RAtomicLong sequence;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @InjectMocks
+    private AccountNumberService accountNumberService;
+
+    @Test
+    void toAccountNumber_NoCollision() {
+        // given
+        Set<String> accountNumbers = new HashSet<>();
+
+        // when
+        for (long i = 0; i < 200_000; i++) {
+            String accountNumber = AccountNumberService.toAccountNumber(i, 42L);
+
+            // then
+            assertEquals(10, accountNumber.length());
+            assertTrue(accountNumber.chars().allMatch(Character::isDigit));
+            assertTrue(accountNumbers.add(accountNumber));
+        }
+    }
+
+    @Test
+    void generateAccountNumber_AllocatesBlock() {
+        // given
+        ReflectionTestUtils.setField(accountNumberService, "blockSize", 1000L);
+        given(redissonClient.getAtomicLong(anyString())).willReturn(sequence);
+        given(sequence.addAndGet(1000L)).willReturn(1000L, 2000L);
+
+        // when
+        for (int i = 0; i < 1001; i++) {
+            accountNumberService.generateAccountNumber();
+        }
+
+        // then
+        verify(sequence, times(2)).addAndGet(1000L);
+    }
+
+    @Test
+    void verifySequence_CounterBehind_RaisesToUnusedBlock() {
+        // given
+        ReflectionTestUtils.setField(accountNumberService, "blockSize", 1000L);
+        Set<String> used = new HashSet<>();
+        for (long block = 0; block < 5; block++) {
+            used.add(AccountNumberService.toAccountNumber(block * 1000, 0L));
+        }
+        given(redissonClient.getAtomicLong(anyString())).willReturn(sequence);
+        given(sequence.get()).willReturn(0L);
+        given(sequence.compareAndSet(0L, 5000L)).willReturn(true);
+        given(accountRepository.existsByAccountNumber(anyString()))
+                .willAnswer(invocation -> used.contains(invocation.<String>getArgument(0)));
+
+        // when
+        accountNumberService.verifySequence();
+
+        // then
+        verify(sequence, times(1)).compareAndSet(0L, 5000L);
+    }
+
+    @Test
+    void verifySequence_CounterAhead_LeavesIt() {
+        // given
+        ReflectionTestUtils.setField(accountNumberService, "blockSize", 1000L);
+        given(redissonClient.getAtomicLong(anyString())).willReturn(sequence);
+        given(sequence.get()).willReturn(7000L);
+        given(accountRepository.existsByAccountNumber(anyString())).willReturn(false);
+
+        // when
+        accountNumberService.verifySequence();
+
+        // then
+        verify(accountRepository, times(1)).existsByAccountNumber(anyString());
+        verify(sequence, never()).compareAndSet(anyLong(), anyLong());
+    }
+
+    @Test
+    void verifySequence_RedisDown_Skips() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willThrow(new IllegalStateException("redis down"));
+
+        // when
+        accountNumberService.verifySequence();
+
+        // then
+        verifyNoInteractions(accountRepository);
+    }
+}
@@ -3,19 +3,29 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDTO;
+import com.example.account.dto.AccountInfo;
+import com.example.account.dto.AccountListItem;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.AccountRepository;
+import com.example.account.shard.ShardRouter;
 import com.example.account.type.AccountStatus;
+import com.example.account.type.JournalDirection;
 import com.example.account.type.ErrorCode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,6 +50,24 @@ class AccountServiceTest {
     @Mock
     private ValidService validService;
 
+    @Mock
+    private AccountCacheService accountCacheService;
+
+    @Mock
+    private AccountListCacheService accountListCacheService;
+
+    @Mock
+    private JournalService journalService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -54,8 +82,10 @@ class AccountServiceTest {
         mockAccountUser.setId(userId);
 
         // 모킹 설정
-        given(accountUserRepository.findById(userId))
-                .willReturn(Optional.of(mockAccountUser));
+        given(accountUserRepository.incrementAccountCount(userId, 10))
+                .willReturn(1);
+        given(accountUserRepository.getById(userId))
+                .willReturn(mockAccountUser);
         given(accountNumberService.generateAccountNumber())
                 .willReturn(generatedAccountNumber);
 
@@ -69,6 +99,7 @@ class AccountServiceTest {
                 .build();
 
         given(accountRepository.save(any(Account.class))).willReturn(savedAccount);
+        givenTransactionTemplateRunsCallback();
 
         // when
         AccountDTO accountDTO = accountService.createAccount(userId, initialBalance);
@@ -76,14 +107,73 @@ class AccountServiceTest {
         // then
         assertEquals(accountDTO.getUserId(), userId);
         assertEquals(accountDTO.getAccountNumber(), generatedAccountNumber);
+        verify(journalService, times(1))
+                .record(savedAccount, JournalDirection.CREDIT, initialBalance, null);
+        verify(accountListCacheService, times(1)).evict(userId);
+        verify(accountUserRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("계좌번호 중복 시 새 번호로 재시도")
+    void createAccount_DuplicateAccountNumber_Retries() {
+
+        // given
+        long userId = 1L;
+        AccountUser mockAccountUser = new AccountUser();
+        mockAccountUser.setId(userId);
+
+        given(accountUserRepository.incrementAccountCount(userId, 10))
+                .willReturn(1);
+        given(accountUserRepository.getById(userId))
+                .willReturn(mockAccountUser);
+        given(accountNumberService.generateAccountNumber())
+                .willReturn("1234567890", "1234567891");
+        given(accountRepository.save(any(Account.class)))
+                .willThrow(new DataIntegrityViolationException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_ACCOUNT_ACCOUNT_NUMBER\""))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        givenTransactionTemplateRunsCallback();
+
+        // when
+        AccountDTO accountDTO = accountService.createAccount(userId, 0L);
+
+        // then
+        assertEquals("1234567891", accountDTO.getAccountNumber());
+        verify(accountNumberService, times(1)).skipBlock();
+        verify(accountRepository, times(2)).save(any(Account.class));
+    }
+
+    @Test
+    @DisplayName("다른 제약 위반은 재시도하지 않음")
+    void createAccount_OtherViolation_Rethrows() {
+
+        // given
+        given(accountUserRepository.incrementAccountCount(1L, 10))
+                .willReturn(1);
+        given(accountNumberService.generateAccountNumber())
+                .willReturn("1234567890");
+        given(accountRepository.save(any(Account.class)))
+                .willThrow(new DataIntegrityViolationException("FK_ACCOUNT_USER"));
+        givenTransactionTemplateRunsCallback();
+
+        // when
+        assertThrows(DataIntegrityViolationException.class,
+                () -> accountService.createAccount(1L, 0L));
+
+        // then
+        verify(accountNumberService, never()).skipBlock();
+        verify(accountRepository, times(1)).save(any(Account.class));
     }
 
     @Test
     @DisplayName("사용자 없음")
     void createAccount_UserNotFound() {
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountUserRepository.incrementAccountCount(anyLong(), anyInt()))
+                .willReturn(0);
+        given(accountUserRepository.existsById(1L))
+                .willReturn(false);
+        givenTransactionTemplateRunsCallback();
 
         AccountException exception =  assertThrows(AccountException.class,
                 () -> accountService.createAccount(1L, 1000L));
@@ -91,6 +181,26 @@ class AccountServiceTest {
         assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("계좌 수 한도 초과")
+    void createAccount_MaxAccountPerUser() {
+
+        // given
+        given(accountUserRepository.incrementAccountCount(1L, 10))
+                .willReturn(0);
+        given(accountUserRepository.existsById(1L))
+                .willReturn(true);
+        givenTransactionTemplateRunsCallback();
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountService.createAccount(1L, 1000L));
+
+        // then
+        assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, exception.getErrorCode());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
     @Test
     void deleteAccount_Success() {
         // given
@@ -118,6 +228,9 @@ class AccountServiceTest {
         verify(accountUserRepository, times(1)).findById(userId);
         verify(accountRepository, times(1)).findByAccountNumber(accountNumber);
         verify(validService, times(1)).validateDeleteAccount(mockAccountUser, mockAccount);
+        verify(accountCacheService, times(1)).evict(accountNumber);
+        verify(accountListCacheService, times(1)).evict(userId);
+        verify(ledgerService, times(1)).accountUnregistered(accountNumber);
     }
 
     @Test
@@ -140,4 +253,44 @@ class AccountServiceTest {
         verify(validService, never()).validateDeleteAccount(any(AccountUser.class), any(Account.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAccount_FromCache() {
+        // given
+        given(accountListCacheService.get(1L))
+                .willReturn(Optional.of(Collections.singletonList(AccountListItem.builder()
+                        .accountId(10L)
+                        .accountNumber("1234567890")
+                        .balance(5000L)
+                        .journalSequence(3L)
+                        .build())));
+
+        // when
+        List<AccountInfo> accounts = accountService.getAccount(1L);
+
+        // then
+        assertEquals(1, accounts.size());
+        assertEquals("1234567890", accounts.get(0).getAccountNumber());
+        assertEquals(5000L, accounts.get(0).getBalance());
+        verify(accountUserRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getAccount_UserNotFound() {
+        // given
+        given(accountListCacheService.get(1L)).willReturn(Optional.empty());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountService.getAccount(1L));
+
+        // then
+        assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
+    }
+
+    private void givenTransactionTemplateRunsCallback() {
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation
+                        .<TransactionCallback<?>>getArgument(0)
+                        .doInTransaction(null));
+    }
+}
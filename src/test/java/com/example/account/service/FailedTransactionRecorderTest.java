@@ -0,0 +1,115 @@
+package com.example.account.service;
+
+import com.example.account.dto.FailedTransaction;
+import com.example.account.type.TransactionType;
+import com.example.account.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionRecorderTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private MeterRegistry meterRegistry;
+
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        failedTransactionRecorder =
+                new FailedTransactionRecorder(
+                        transactionService, meterRegistry, new ShardRouter(1));
+
+        ReflectionTestUtils.setField(failedTransactionRecorder, "queueCapacity", 10);
+        ReflectionTestUtils.setField(failedTransactionRecorder, "batchSize", 5);
+        ReflectionTestUtils.setField(failedTransactionRecorder, "offerTimeout", 10L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_DrainedOnStop() throws InterruptedException {
+        // given
+        failedTransactionRecorder.start();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            failedTransactionRecorder.record(TransactionType.USE, "1234567890", 1000L);
+        }
+        failedTransactionRecorder.stop();
+
+        // then
+        ArgumentCaptor<List<FailedTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, atLeastOnce()).saveFailedTransactions(captor.capture());
+        assertEquals(8, captor.getAllValues().stream().mapToInt(List::size).sum());
+        assertEquals(0.0, meterRegistry.get("account.failed_transaction.queue.size")
+                .gauge().value());
+    }
+
+    @Test
+    void record_AfterStop_WritesSynchronously() throws InterruptedException {
+        // given
+        failedTransactionRecorder.start();
+        failedTransactionRecorder.stop();
+
+        // when
+        failedTransactionRecorder.record(TransactionType.CANCEL, "1234567890", 1000L);
+
+        // then
+        verify(transactionService, times(1)).saveFailedTransactions(anyList());
+        assertEquals(1.0, meterRegistry.get("account.failed_transaction.rejected")
+                .counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_ConcurrentWithStop_NothingLost() throws Exception {
+        // given
+        ReflectionTestUtils.setField(failedTransactionRecorder, "queueCapacity", 1000);
+        failedTransactionRecorder.start();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch started = new CountDownLatch(4);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                started.countDown();
+                for (int i = 0; i < 200; i++) {
+                    failedTransactionRecorder.record(
+                            TransactionType.USE, "1234567890", 1000L);
+                }
+            }));
+        }
+        started.await();
+        failedTransactionRecorder.stop();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // then
+        ArgumentCaptor<List<FailedTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, atLeastOnce()).saveFailedTransactions(captor.capture());
+        assertEquals(800, captor.getAllValues().stream().mapToInt(List::size).sum());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<String> bucket;
+
+    private ObjectMapper objectMapper;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        idempotencyService = new IdempotencyService(redissonClient, objectMapper);
+
+        ReflectionTestUtils.setField(idempotencyService, "ttl", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "inProgressTtl", 5L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeout", 100L);
+    }
+
+    @Test
+    void execute_WithoutKey() {
+        // when
+        UseBalance.Response response = idempotencyService.execute(
+                null, "use", "fingerprint", UseBalance.Response.class, this::response);
+
+        // then
+        assertEquals("transactionId", response.getTransactionId());
+        verify(redissonClient, never()).getBucket(anyString(), any());
+    }
+
+    @Test
+    void execute_FirstRequest() {
+        // given
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), eq(5L), eq(TimeUnit.SECONDS))).willReturn(true);
+
+        // when
+        UseBalance.Response response = idempotencyService.execute(
+                "key", "use", "fingerprint", UseBalance.Response.class, this::response);
+
+        // then
+        assertEquals("transactionId", response.getTransactionId());
+        verify(bucket, times(1)).set(startsWith("D|" + IdempotencyService.digest("fingerprint") + "|"), eq(60L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_Replay() throws Exception {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any())).willReturn(false);
+        given(bucket.get()).willReturn(
+                "D|" + IdempotencyService.digest("fingerprint") + "|" + objectMapper.writeValueAsString(response()));
+
+        // when
+        UseBalance.Response response = idempotencyService.execute(
+                "key", "use", "fingerprint", UseBalance.Response.class, () -> {
+                    executions.incrementAndGet();
+                    return response();
+                });
+
+        // then
+        assertEquals("transactionId", response.getTransactionId());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_KeyReused() {
+        // given
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any())).willReturn(false);
+        given(bucket.get()).willReturn("P|" + IdempotencyService.digest("other-fingerprint"));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyService.execute("key", "use", "fingerprint",
+                        UseBalance.Response.class, this::response));
+
+        // then
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, exception.getErrorCode());
+    }
+
+    @Test
+    void execute_InProgressTimeout() {
+        // given
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any())).willReturn(false);
+        given(bucket.get()).willReturn("P|" + IdempotencyService.digest("fingerprint"));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyService.execute("key", "use", "fingerprint",
+                        UseBalance.Response.class, this::response));
+
+        // then
+        assertEquals(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS, exception.getErrorCode());
+    }
+
+    @Test
+    void execute_FailureReleasesKey() {
+        // given
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any())).willReturn(true);
+
+        // when
+        assertThrows(AccountException.class,
+                () -> idempotencyService.execute("key", "use", "fingerprint",
+                        UseBalance.Response.class, () -> {
+                            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                        }));
+
+        // then
+        verify(bucket, times(1)).delete();
+    }
+
+    @Test
+    void execute_FingerprintWithSeparator() throws Exception {
+        // given
+        String fingerprint = "tx|1:1234567890:1000";
+        given(redissonClient.<String>getBucket(anyString(), any())).willReturn(bucket);
+        given(bucket.trySet(anyString(), anyLong(), any())).willReturn(false);
+        given(bucket.get()).willReturn("D|" + IdempotencyService.digest(fingerprint)
+                + "|" + objectMapper.writeValueAsString(response()));
+
+        // when
+        UseBalance.Response response = idempotencyService.execute(
+                "key", "cancel", fingerprint, UseBalance.Response.class, this::response);
+
+        // then
+        assertEquals("transactionId", response.getTransactionId());
+    }
+
+    private UseBalance.Response response() {
+        return UseBalance.Response.builder()
+                .accountNumber("1234567890")
+                .transactionResult(TransactionResultType.SUCCESS)
+                .transactionId("transactionId")
+                .amount(1000L)
+                .transactionAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.BalanceCheckpoint;
+import com.example.account.domain.JournalEntry;
+import com.example.account.dto.AccountBalance;
+import com.example.account.dto.AccountSummary;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.BalanceCheckpointRepository;
+import com.example.account.repository.JournalEntryRepository;
+import com.example.account.shard.ShardContext;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.JournalDirection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JournalServiceTest {
+
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @Mock
+    private AccountListCacheService accountListCacheService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private JournalService journalService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(journalService, "checkpointInterval", 1000L);
+        ReflectionTestUtils.setField(journalService, "checkpointBatchSize", 500);
+    }
+
+    @Test
+    void record_IncreasesSequence() {
+        // given
+        Account account = Account.builder()
+                .balance(9000L)
+                .journalSequence(4L)
+                .build();
+        account.setId(10L);
+
+        given(journalEntryRepository.save(any(JournalEntry.class)))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        JournalEntry entry = journalService.record(
+                account, JournalDirection.DEBIT, 1000L, 100L);
+
+        // then
+        assertEquals(5L, account.getJournalSequence());
+        assertEquals(10L, entry.getAccountId());
+        assertEquals(5L, entry.getSequence());
+        assertEquals(9000L, entry.getBalanceAfter());
+        assertEquals(-1000L, entry.signedAmount());
+        verify(accountListCacheService, times(1))
+                .balanceChanged(Collections.singletonList(entry));
+    }
+
+    @Test
+    void rebuildBalance_FromCheckpointAndTail() {
+        // given
+        givenAccountSummary();
+        given(balanceCheckpointRepository.findFirstByAccountIdOrderBySequenceDesc(10L))
+                .willReturn(Optional.of(BalanceCheckpoint.builder()
+                        .accountId(10L)
+                        .sequence(1000L)
+                        .balance(50_000L)
+                        .build()));
+        given(journalEntryRepository.sumAmountAfter(10L, 1000L, JournalDirection.CREDIT))
+                .willReturn(-3_000L);
+
+        // when
+        long balance = journalService.rebuildBalance("1234567890");
+
+        // then
+        assertEquals(47_000L, balance);
+    }
+
+    @Test
+    void rebuildBalance_WithoutCheckpoint() {
+        // given
+        givenAccountSummary();
+        given(balanceCheckpointRepository.findFirstByAccountIdOrderBySequenceDesc(10L))
+                .willReturn(Optional.empty());
+        given(journalEntryRepository.sumAmountAfter(10L, 0L, JournalDirection.CREDIT))
+                .willReturn(12_000L);
+
+        // when
+        long balance = journalService.rebuildBalance("1234567890");
+
+        // then
+        assertEquals(12_000L, balance);
+    }
+
+    @Test
+    void rebuildBalance_RoutesToAccountShard() {
+        // given
+        ShardRouter shards = new ShardRouter(4);
+        JournalService shardedJournalService = new JournalService(
+                journalEntryRepository, balanceCheckpointRepository, accountRepository,
+                shards, accountListCacheService, meterRegistry);
+        int expectedShard = shards.resolve("1234567890");
+        int[] queriedShard = new int[1];
+        given(accountRepository.findSummaryByAccountNumber("1234567890"))
+                .willAnswer(invocation -> {
+                    queriedShard[0] = ShardContext.current();
+                    return Optional.of(new AccountSummary(10L, 1L, AccountStatus.IN_USE));
+                });
+        given(balanceCheckpointRepository.findFirstByAccountIdOrderBySequenceDesc(10L))
+                .willReturn(Optional.empty());
+
+        // when
+        shardedJournalService.rebuildBalance("1234567890");
+
+        // then
+        assertEquals(expectedShard, queriedShard[0]);
+        shards.shutdown();
+    }
+
+    @Test
+    void rebuildBalance_AccountNotFound() {
+        // given
+        given(accountRepository.findSummaryByAccountNumber("1234567890"))
+                .willReturn(Optional.empty());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> journalService.rebuildBalance("1234567890"));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_FoldsJournalFromPreviousCheckpoint() {
+        // given
+        given(accountRepository.findCheckpointTargets(anyLong(), any()))
+                .willReturn(Collections.singletonList(
+                        new AccountBalance(10L, 1L, AccountStatus.IN_USE, 47_000L, 2000L)));
+        given(balanceCheckpointRepository.findFirstByAccountIdOrderBySequenceDesc(10L))
+                .willReturn(Optional.of(BalanceCheckpoint.builder()
+                        .accountId(10L)
+                        .sequence(1000L)
+                        .balance(50_000L)
+                        .build()));
+        given(journalEntryRepository.sumAmountBetween(10L, 1000L, 2000L, JournalDirection.CREDIT))
+                .willReturn(-3_000L);
+
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        journalService.checkpoint();
+
+        // then
+        verify(balanceCheckpointRepository, times(1)).saveAll(captor.capture());
+        BalanceCheckpoint checkpoint = captor.getValue().get(0);
+        assertEquals(10L, checkpoint.getAccountId());
+        assertEquals(2000L, checkpoint.getSequence());
+        assertEquals(47_000L, checkpoint.getBalance());
+        assertEquals(0.0, meterRegistry.counter(JournalService.CHECKPOINT_MISMATCH_METRIC).count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkpoint_AccountBalanceDrift_KeepsJournalBalance() {
+        // given
+        // Account.balance 가 분개와 어긋난 경우
+        given(accountRepository.findCheckpointTargets(anyLong(), any()))
+                .willReturn(Collections.singletonList(
+                        new AccountBalance(10L, 1L, AccountStatus.IN_USE, 48_000L, 2000L)));
+        given(balanceCheckpointRepository.findFirstByAccountIdOrderBySequenceDesc(10L))
+                .willReturn(Optional.empty());
+        given(journalEntryRepository.sumAmountBetween(10L, 0L, 2000L, JournalDirection.CREDIT))
+                .willReturn(47_000L);
+
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        journalService.checkpoint();
+
+        // then
+        verify(balanceCheckpointRepository, times(1)).saveAll(captor.capture());
+        assertEquals(47_000L, captor.getValue().get(0).getBalance());
+        assertEquals(1.0, meterRegistry.counter(JournalService.CHECKPOINT_MISMATCH_METRIC).count());
+    }
+
+    private void givenAccountSummary() {
+        given(accountRepository.findSummaryByAccountNumber("1234567890"))
+                .willReturn(Optional.of(new AccountSummary(10L, 1L, AccountStatus.IN_USE)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.account.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerOwnerLeaseTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBucket<String> bucket;
+
+    private LedgerOwnerLease ledgerOwnerLease;
+
+    @BeforeEach
+    void setUp() {
+        given(redissonClient.<String>getBucket("account:ledger:owner", StringCodec.INSTANCE))
+                .willReturn(bucket);
+
+        ledgerOwnerLease = new LedgerOwnerLease(redissonClient, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ledgerOwnerLease, "leaseSeconds", 30L);
+    }
+
+    @Test
+    void acquire_FirstInstance() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", true);
+        given(bucket.trySet(anyString(), eq(30L), eq(TimeUnit.SECONDS))).willReturn(true);
+
+        // when
+        ledgerOwnerLease.acquire();
+
+        // then
+        assertTrue(ledgerOwnerLease.isOwner());
+    }
+
+    @Test
+    void acquire_SecondLedgerInstance_FailsStartup() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", true);
+        given(bucket.trySet(anyString(), eq(30L), eq(TimeUnit.SECONDS))).willReturn(false);
+        given(bucket.get()).willReturn("other-instance");
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> ledgerOwnerLease.acquire());
+
+        // then
+        assertTrue(exception.getMessage().contains("other-instance"));
+        assertFalse(ledgerOwnerLease.isOwner());
+    }
+
+    @Test
+    void acquire_NonLedgerInstance_FailsWhileLedgerRunning() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", false);
+        given(bucket.get()).willReturn("other-instance");
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class, () -> ledgerOwnerLease.acquire());
+        verify(bucket, never()).trySet(anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void renew_ExtendsOwnLease() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", true);
+        String instanceId = (String) ReflectionTestUtils.getField(ledgerOwnerLease, "instanceId");
+        given(bucket.trySet(anyString(), eq(30L), eq(TimeUnit.SECONDS))).willReturn(true);
+        ledgerOwnerLease.acquire();
+        given(bucket.get()).willReturn(instanceId);
+
+        // when
+        ledgerOwnerLease.renew();
+
+        // then
+        verify(bucket, times(1)).expire(30L, TimeUnit.SECONDS);
+        assertTrue(ledgerOwnerLease.isOwner());
+    }
+
+    @Test
+    void recheckOwner_NonLedgerInstance_TracksLedgerOwner() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", false);
+        given(bucket.get()).willReturn("other-instance", (String) null);
+
+        // when
+        // then
+        ledgerOwnerLease.recheckOwner();
+        assertTrue(ledgerOwnerLease.isOwnedElsewhere());
+
+        ledgerOwnerLease.recheckOwner();
+        assertFalse(ledgerOwnerLease.isOwnedElsewhere());
+    }
+
+    @Test
+    void recheckOwner_RedisDown_KeepsLastState() {
+        // given
+        ReflectionTestUtils.setField(ledgerOwnerLease, "enabled", false);
+        given(bucket.get())
+                .willReturn("other-instance")
+                .willThrow(new RedisException("redis down"));
+
+        // when
+        ledgerOwnerLease.recheckOwner();
+        ledgerOwnerLease.recheckOwner();
+
+        // then
+        assertTrue(ledgerOwnerLease.isOwnedElsewhere());
+    }
+}
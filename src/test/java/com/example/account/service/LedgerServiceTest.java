@@ -0,0 +1,404 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionIds;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private JournalService journalService;
+
+    @Mock
+    private LedgerOwnerLease ledgerOwnerLease;
+
+    private LedgerService ledgerService;
+
+    private MeterRegistry meterRegistry;
+
+    private Account mockAccount;
+
+    @BeforeEach
+    void setUp() {
+        AccountUser mockAccountUser = new AccountUser();
+        mockAccountUser.setId(1L);
+
+        mockAccount = Account.builder()
+                .accountUser(mockAccountUser)
+                .accountNumber("1234567890")
+                .balance(50_000L)
+                .accountStatus(AccountStatus.IN_USE)
+                .registeredAt(LocalDateTime.now())
+                .build();
+        mockAccount.setId(10L);
+        meterRegistry = new SimpleMeterRegistry();
+
+        ledgerService = new LedgerService(
+                accountRepository,
+                transactionRepository,
+                new ValidService(),
+                journalService,
+                new ShardRouter(1),
+                new TransactionIdGenerator(),
+                transactionTemplate,
+                meterRegistry,
+                ledgerOwnerLease);
+        lenient().when(ledgerOwnerLease.isOwner()).thenReturn(true);
+
+        ReflectionTestUtils.setField(ledgerService, "enabled", true);
+        ReflectionTestUtils.setField(ledgerService, "managedAccountNumbers",
+                Collections.singleton("1234567890"));
+        ReflectionTestUtils.setField(ledgerService, "batchSize", 100);
+        ReflectionTestUtils.setField(ledgerService, "maxAttempts", 3);
+    }
+
+    @Test
+    void isManaged() {
+        assertTrue(ledgerService.isManaged("1234567890"));
+        assertFalse(ledgerService.isManaged("0000000000"));
+    }
+
+    @Test
+    void isManaged_NonLedgerInstance_RefusedWhileLedgerRunsElsewhere() {
+        // given
+        ReflectionTestUtils.setField(ledgerService, "enabled", false);
+        given(ledgerOwnerLease.isOwnedElsewhere()).willReturn(false, true);
+
+        // when
+        // then
+        assertFalse(ledgerService.isManaged("1234567890"));
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.isManaged("1234567890"));
+        assertEquals(ErrorCode.LEDGER_OWNER_UNAVAILABLE, exception.getErrorCode());
+    }
+
+    @Test
+    void useBalance_NotOwner_Refused() {
+        // given
+        given(ledgerOwnerLease.isOwner()).willReturn(false);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.useBalance(1L, "1234567890", 1000L));
+
+        // then
+        assertEquals(ErrorCode.LEDGER_OWNER_UNAVAILABLE, exception.getErrorCode());
+        assertEquals(0, ledgerService.pendingCount());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+    }
+
+    @Test
+    void flush_OwnershipLost_WritesPendingAndReloadsCellLater() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        givenTransactionTemplateRunsCallback();
+
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+        given(ledgerOwnerLease.isOwner()).willReturn(false);
+
+        // when
+        ledgerService.flush();
+        given(ledgerOwnerLease.isOwner()).willReturn(true);
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+
+        // then
+        verify(transactionRepository, times(1)).saveAll(any());
+        verify(accountRepository, times(1)).updateBalance(10L, 49_000L, 1L);
+        // 버린 셀은 DB 잔액으로 다시 만든다
+        verify(accountRepository, times(2)).findByAccountNumber("1234567890");
+    }
+
+    @Test
+    void useBalance_Success() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+
+        // when
+        TransactionDTO transactionDTO =
+                ledgerService.useBalance(1L, "1234567890", 1000L);
+
+        // then
+        assertEquals(49_000L, transactionDTO.getBalanceSnapshot());
+        assertEquals(1, ledgerService.pendingCount());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void useBalance_UserUnMatch() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.useBalance(2L, "1234567890", 1000L));
+
+        // then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+        assertEquals(0, ledgerService.pendingCount());
+    }
+
+    @Test
+    void useBalance_Concurrent() throws InterruptedException {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+
+        int threads = 8;
+        int requestsPerThread = 1000;
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger exceeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        // when
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        try {
+                            ledgerService.useBalance(1L, "1234567890", 10L);
+                            success.incrementAndGet();
+                        } catch (AccountException e) {
+                            exceeded.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertEquals(5000, success.get());
+        assertEquals(3000, exceeded.get());
+        assertEquals(5000, ledgerService.pendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WritesLatestBalance() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0)
+                    .accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+        ledgerService.useBalance(1L, "1234567890", 2000L);
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        ledgerService.flush();
+
+        // then
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(accountRepository, times(1)).updateBalance(10L, 47_000L, 2L);
+        verify(journalService, times(1)).recordAll(argThat(entries -> entries.size() == 2));
+        assertEquals(0, ledgerService.pendingCount());
+    }
+
+    @Test
+    void flush_AlwaysFailing_StallsAccountWithoutDroppingEntry() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        givenTransactionTemplateRunsCallback();
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        given(transactionRepository.saveAll(any()))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"));
+
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            ledgerService.flush();
+        }
+
+        // then
+        // 첫 flush 는 묶음 + 계좌별로 2 번, 이후에는 붙잡아 둔 항목만 1 번씩
+        verify(transactionRepository, times(6)).saveAll(any());
+        assertEquals(1, ledgerService.pendingCount());
+        assertEquals(1.0, meterRegistry.counter(LedgerService.STALLED_METRIC).count());
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.useBalance(1L, "1234567890", 1000L));
+        assertEquals(ErrorCode.ACCOUNT_LEDGER_STALLED, exception.getErrorCode());
+    }
+
+    @Test
+    void flush_StalledAccount_ResumesAfterWrite() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        givenTransactionTemplateRunsCallback();
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        given(transactionRepository.saveAll(any()))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+        for (int i = 0; i < 3; i++) {
+            ledgerService.flush();
+        }
+
+        // when
+        ledgerService.flush();
+
+        // then
+        verify(accountRepository, times(1)).updateBalance(10L, 49_000L, 1L);
+        assertEquals(0, ledgerService.pendingCount());
+        assertEquals(48_000L,
+                ledgerService.useBalance(1L, "1234567890", 1000L).getBalanceSnapshot());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_FailingAccount_DoesNotBlockOthers() {
+        // given
+        Account otherAccount = Account.builder()
+                .accountUser(mockAccount.getAccountUser())
+                .accountNumber("1234567891")
+                .balance(10_000L)
+                .accountStatus(AccountStatus.IN_USE)
+                .registeredAt(LocalDateTime.now())
+                .build();
+        otherAccount.setId(11L);
+        ReflectionTestUtils.setField(ledgerService, "managedAccountNumbers",
+                new HashSet<>(Arrays.asList("1234567890", "1234567891")));
+
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        given(accountRepository.findByAccountNumber("1234567891"))
+                .willReturn(Optional.of(otherAccount));
+        givenTransactionTemplateRunsCallback();
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        given(accountRepository.getById(11L)).willReturn(otherAccount);
+
+        TransactionDTO poison = ledgerService.useBalance(1L, "1234567890", 1000L);
+        ledgerService.useBalance(1L, "1234567890", 2000L);
+        ledgerService.useBalance(1L, "1234567891", 3000L);
+        long poisonId = TransactionIds.parse(poison.getTransactionId());
+
+        // 첫 번째 거래가 들어 있는 묶음은 항상 실패한다
+        given(transactionRepository.saveAll(any())).willAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.stream().anyMatch(t -> t.getTransactionId() == poisonId)) {
+                throw new DataIntegrityViolationException("uk_transaction_transaction_id");
+            }
+            return transactions;
+        });
+
+        // when
+        ledgerService.flush();
+
+        // then
+        // 묶음 1 번 + 계좌별 2 번
+        verify(transactionRepository, times(3)).saveAll(any());
+        verify(accountRepository, times(1)).updateBalance(11L, 7_000L, 1L);
+        // 실패한 계좌의 뒤 순번은 앞 순번이 기록될 때까지 기다린다
+        verify(accountRepository, never()).updateBalance(eq(10L), anyLong(), anyLong());
+        assertEquals(2, ledgerService.pendingCount());
+    }
+
+    @Test
+    void cancelBalance_PendingUse() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+
+        TransactionDTO used = ledgerService.useBalance(1L, "1234567890", 1000L);
+
+        // when
+        // 사용 거래가 아직 DB 에 기록되기 전에 취소한다
+        TransactionDTO cancelled = ledgerService.cancelBalance(
+                used.getTransactionId(), "1234567890", 1000L);
+
+        // then
+        assertEquals(50_000L, cancelled.getBalanceSnapshot());
+        assertEquals(2, ledgerService.pendingCount());
+        verify(transactionRepository, never()).findByTransactionId(anyLong());
+    }
+
+    @Test
+    void useBalance_AfterAccountUnregistered() {
+        // given
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(mockAccount));
+        ledgerService.useBalance(1L, "1234567890", 1000L);
+
+        // when
+        ledgerService.accountUnregistered("1234567890");
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.useBalance(1L, "1234567890", 1000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+        assertEquals(1, ledgerService.pendingCount());
+    }
+
+    private void givenTransactionTemplateRunsCallback() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0)
+                    .accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisConnectionException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LockServiceTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock rLock;
+
+    @Mock
+    private RedisHealthMonitor redisHealthMonitor;
+
+    private MeterRegistry meterRegistry;
+
+    private LockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockService = new LockService(redissonClient, redisHealthMonitor, meterRegistry);
+    }
+
+    @Test
+    void lock_Success() throws InterruptedException {
+        // given
+        given(redisHealthMonitor.isAvailable()).willReturn(true);
+        given(redissonClient.getLock(anyString())).willReturn(rLock);
+        given(rLock.tryLock(100L, 3000L, TimeUnit.MILLISECONDS)).willReturn(true);
+
+        // when
+        Lock lock = lockService.lock("1234567890", 100L, 3000L);
+
+        // then
+        assertSame(rLock, lock);
+        verify(redissonClient, times(1)).getLock("account:lock:1234567890");
+        assertEquals(1, meterRegistry.get("account.lock.wait")
+                .tag("result", "acquired").timer().count());
+    }
+
+    @Test
+    void lock_Fail() throws InterruptedException {
+        // given
+        given(redisHealthMonitor.isAvailable()).willReturn(true);
+        given(redissonClient.getLock(anyString())).willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .willReturn(false);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("1234567890", 100L, 3000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(1, meterRegistry.get("account.lock.wait")
+                .tag("result", "failed").timer().count());
+    }
+
+    @Test
+    void unlock_NotHeldByCurrentThread() {
+        // given
+        given(rLock.isHeldByCurrentThread()).willReturn(false);
+
+        // when
+        lockService.unlock(rLock);
+
+        // then
+        verify(rLock, never()).unlock();
+    }
+
+    @Test
+    void lock_RedisUnavailable_UsesLocalLock() {
+        // given
+        given(redisHealthMonitor.isAvailable()).willReturn(false);
+
+        // when
+        Lock lock = lockService.lock("1234567890", 100L, 3000L);
+
+        // then
+        assertTrue(lock instanceof ReentrantLock);
+        assertTrue(((ReentrantLock) lock).isHeldByCurrentThread());
+        verify(redissonClient, never()).getLock(anyString());
+        assertEquals(1, meterRegistry.get("account.lock.wait")
+                .tag("mode", "local").tag("result", "acquired").timer().count());
+
+        lockService.unlock(lock);
+        assertFalse(((ReentrantLock) lock).isLocked());
+    }
+
+    @Test
+    void lock_RedisError_FallsBackToLocalLock() throws InterruptedException {
+        // given
+        given(redisHealthMonitor.isAvailable()).willReturn(true);
+        given(redissonClient.getLock(anyString())).willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .willThrow(new RedisConnectionException("connection refused"));
+
+        // when
+        Lock lock = lockService.lock("1234567890", 100L, 3000L);
+
+        // then
+        assertTrue(lock instanceof ReentrantLock);
+        verify(redisHealthMonitor, times(1)).markUnavailable();
+        lockService.unlock(lock);
+    }
+
+    @Test
+    void lock_LocalLockHeldByOtherThread_Fail() throws Exception {
+        // given
+        given(redisHealthMonitor.isAvailable()).willReturn(false);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.submit(() -> {
+            Lock lock = lockService.lock("1234567890", 100L, 3000L);
+            locked.countDown();
+            release.await();
+            lockService.unlock(lock);
+            return null;
+        });
+        locked.await();
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("1234567890", 50L, 3000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        release.countDown();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.account.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 임베디드 Redis 를 내렸다 올리면서 로컬 락으로 넘어가고 돌아오는 데 걸리는 시간을 잰다.
+ */
+class RedisFailoverTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisFailoverTest.class);
+
+    private static final int REDIS_PORT = 6391;
+    private static final int REDIS_TIMEOUT = 500;
+    private static final String ACCOUNT_NUMBER = "1234567890";
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private RedisHealthMonitor redisHealthMonitor;
+    private LockService lockService;
+
+    @BeforeEach
+    void setUp() {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress("redis://127.0.0.1:" + REDIS_PORT)
+                .setConnectTimeout(REDIS_TIMEOUT)
+                .setTimeout(REDIS_TIMEOUT)
+                .setRetryAttempts(1)
+                .setRetryInterval(100)
+                .setPingConnectionInterval(500);
+        redissonClient = Redisson.create(config);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        redisHealthMonitor = new RedisHealthMonitor(redissonClient, meterRegistry);
+        ReflectionTestUtils.setField(redisHealthMonitor, "healthCheckTimeout", 200L);
+        redisHealthMonitor.init();
+
+        lockService = new LockService(redissonClient, redisHealthMonitor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Test
+    void redisDown_SwitchesToLocalLockAndBack() throws InterruptedException {
+        // given
+        Lock redisLock = lockService.lock(ACCOUNT_NUMBER, 100L, 3000L);
+        assertTrue(redisLock instanceof RLock);
+        lockService.unlock(redisLock);
+
+        // when
+        redisServer.stop();
+
+        // 점검 전에 들어온 요청은 Redisson 타임아웃 뒤에 로컬 락으로 넘어간다
+        long startedAt = System.nanoTime();
+        Lock failoverLock = lockService.lock(ACCOUNT_NUMBER, 100L, 3000L);
+        long failoverMillis = elapsedMillis(startedAt);
+        lockService.unlock(failoverLock);
+
+        // 이후 요청은 Redis 를 기다리지 않는다
+        startedAt = System.nanoTime();
+        Lock degradedLock = lockService.lock(ACCOUNT_NUMBER, 100L, 3000L);
+        long degradedMillis = elapsedMillis(startedAt);
+        lockService.unlock(degradedLock);
+
+        redisServer.start();
+        startedAt = System.nanoTime();
+        while (!redisHealthMonitor.isAvailable() && elapsedMillis(startedAt) < 10_000) {
+            redisHealthMonitor.check();
+            Thread.sleep(100);
+        }
+        long recoveryMillis = elapsedMillis(startedAt);
+        Lock recoveredLock = lockService.lock(ACCOUNT_NUMBER, 100L, 3000L);
+        lockService.unlock(recoveredLock);
+
+        log.info("failover {}ms, degraded lock {}ms, recovery {}ms",
+                failoverMillis, degradedMillis, recoveryMillis);
+
+        // then
+        assertTrue(failoverLock instanceof ReentrantLock);
+        assertTrue(failoverMillis < REDIS_TIMEOUT * 4L, "failover " + failoverMillis);
+
+        assertTrue(degradedLock instanceof ReentrantLock);
+        assertTrue(degradedMillis < REDIS_TIMEOUT, "degraded lock " + degradedMillis);
+
+        assertTrue(redisHealthMonitor.isAvailable());
+        assertTrue(recoveredLock instanceof RLock);
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
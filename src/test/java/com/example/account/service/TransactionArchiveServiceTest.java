@@ -0,0 +1,134 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionArchiveServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionArchiveService transactionArchiveService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        transactionArchiveService = new TransactionArchiveService(
+                transactionRepository, transactionArchiveRepository,
+                new ShardRouter(1), transactionTemplate);
+        ReflectionTestUtils.setField(transactionArchiveService, "retentionDays", 366L);
+        ReflectionTestUtils.setField(transactionArchiveService, "batchSize", 2);
+
+        account = Account.builder()
+                .accountNumber("1234567890")
+                .build();
+        account.setId(10L);
+    }
+
+    @Test
+    void archiveCutoff_StartOfMonth() {
+        // given
+        LocalDateTime now = LocalDateTime.of(2025, 3, 15, 10, 0);
+
+        // when
+        LocalDateTime cutoff = transactionArchiveService.archiveCutoff(now);
+
+        // then
+        // 2024-03-14 가 속한 달의 1일
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), cutoff);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archiveBefore_MovesInBatches() {
+        // given
+        LocalDateTime cutoff = LocalDateTime.of(2024, 3, 1, 0, 0);
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> invocation
+                .<TransactionCallback<Integer>>getArgument(0)
+                .doInTransaction(null));
+        given(transactionRepository.findArchiveTargets(eq(cutoff), any(Pageable.class)))
+                .willReturn(Arrays.asList(transaction(1L), transaction(2L)))
+                .willReturn(Collections.singletonList(transaction(3L)));
+        ArgumentCaptor<List<TransactionArchive>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        long archived = transactionArchiveService.archiveBefore(cutoff);
+
+        // then
+        assertEquals(3L, archived);
+        verify(transactionArchiveRepository, times(2)).saveAll(captor.capture());
+        TransactionArchive archive = captor.getAllValues().get(0).get(0);
+        assertEquals(1L, archive.getId());
+        assertEquals(10L, archive.getAccountId());
+        assertEquals("1234567890", archive.getAccountNumber());
+        assertEquals(202402, archive.getArchiveMonth());
+        verify(transactionRepository).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+        verify(transactionRepository).deleteAllByIdInBatch(Collections.singletonList(3L));
+    }
+
+    @Test
+    void archiveBefore_NothingToMove() {
+        // given
+        LocalDateTime cutoff = LocalDateTime.of(2024, 3, 1, 0, 0);
+        given(transactionTemplate.execute(any())).willAnswer(invocation -> invocation
+                .<TransactionCallback<Integer>>getArgument(0)
+                .doInTransaction(null));
+        given(transactionRepository.findArchiveTargets(eq(cutoff), any(Pageable.class)))
+                .willReturn(Collections.emptyList());
+
+        // when
+        long archived = transactionArchiveService.archiveBefore(cutoff);
+
+        // then
+        assertEquals(0L, archived);
+        verify(transactionArchiveRepository, never()).saveAll(any());
+    }
+
+    private Transaction transaction(long id) {
+        Transaction transaction = Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(account)
+                .amount(1000L)
+                .transactionId(1000L + id)
+                .transactionAt(LocalDateTime.of(2024, 2, 10, 12, 0))
+                .build();
+        transaction.setId(id);
+        return transaction;
+    }
+}
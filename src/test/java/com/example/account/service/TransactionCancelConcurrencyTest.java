@@ -0,0 +1,137 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountDTO;
+import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionIds;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 같은 거래에 대한 취소를 동시에 보내도 한 번만 반영되는지 확인한다.
+ */
+@SpringBootTest
+class TransactionCancelConcurrencyTest {
+
+    private static final long USER_ID = 4L;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Test
+    void cancelBalance_ParallelCancels_OnlyOneSucceeds() throws Exception {
+        // given
+        AccountDTO account = accountService.createAccount(USER_ID, 10_000L);
+        TransactionDTO used = transactionService.useBalance(
+                USER_ID, account.getAccountNumber(), 1_000L);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ErrorCode>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    transactionService.cancelBalance(
+                            used.getTransactionId(), account.getAccountNumber(), 1_000L);
+                    return null;
+                } catch (AccountException e) {
+                    return e.getErrorCode();
+                }
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<ErrorCode> future : futures) {
+            ErrorCode errorCode = future.get();
+            if (errorCode == null) {
+                succeeded++;
+            } else {
+                // 락을 못 잡았거나, 락을 잡았지만 이미 취소된 경우
+                assertTrue(EnumSet.of(ErrorCode.TRANSACTION_ALREADY_CANCELLED,
+                                ErrorCode.ACCOUNT_TRANSACTION_LOCK).contains(errorCode),
+                        errorCode.name());
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(1, succeeded);
+        assertEquals(10_000L, accountRepository
+                .findByAccountNumber(account.getAccountNumber())
+                .map(Account::getBalance)
+                .orElseThrow());
+        assertTrue(transactionRepository.existsByCancelledTransactionId(
+                TransactionIds.parse(used.getTransactionId())));
+    }
+
+    @Test
+    void cancelledTransactionId_UniqueIndexRejectsSecondCancel() {
+        // given
+        AccountDTO account = accountService.createAccount(USER_ID, 10_000L);
+        TransactionDTO used = transactionService.useBalance(
+                USER_ID, account.getAccountNumber(), 1_000L);
+        Account entity = accountRepository.findByAccountNumber(account.getAccountNumber())
+                .orElseThrow();
+        long usedTransactionId = TransactionIds.parse(used.getTransactionId());
+
+        transactionRepository.saveAndFlush(cancelOf(entity, usedTransactionId));
+
+        // when
+        // then
+        // 락을 거치지 않고 직접 넣어도 DB 가 두 번째 취소를 막는다
+        assertThrows(DataIntegrityViolationException.class,
+                () -> transactionRepository.saveAndFlush(
+                        cancelOf(entity, usedTransactionId)));
+    }
+
+    private Transaction cancelOf(Account account, long cancelledTransactionId) {
+
+        return Transaction.builder()
+                .transactionType(TransactionType.CANCEL)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(account)
+                .amount(1_000L)
+                .balanceSnapshot(account.getBalance())
+                .transactionId(transactionIdGenerator.nextId())
+                .transactionAt(LocalDateTime.now())
+                .cancelledTransactionId(cancelledTransactionId)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.repository.TransactionArchiveRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ExportFormat;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportService transactionExportService;
+
+    private Account mockAccount;
+
+    @BeforeEach
+    void setUp() {
+        AccountUser mockAccountUser = new AccountUser();
+        mockAccountUser.setId(1L);
+
+        mockAccount = Account.builder()
+                .accountUser(mockAccountUser)
+                .accountNumber("1234567890")
+                .balance(10000L)
+                .accountStatus(AccountStatus.IN_USE)
+                .registeredAt(LocalDateTime.now())
+                .build();
+
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        transactionExportService = new TransactionExportService(
+                transactionRepository, transactionArchiveRepository, entityManager, transactionManager, objectMapper,
+                new ShardRouter(1));
+        transactionExportService.init();
+    }
+
+    @Test
+    void export_Ndjson() throws IOException {
+        // given
+        given(transactionRepository.streamByTransactionAtBetween(any(), any()))
+                .willReturn(Stream.of(transaction(1L), transaction(2L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        transactionExportService.export(LocalDateTime.now().minusDays(1),
+                LocalDateTime.now(), ExportFormat.NDJSON, outputStream);
+
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"transactionId\":\"0000000000001\""));
+        verify(entityManager, times(2)).detach(any(Transaction.class));
+    }
+
+    @Test
+    void export_Csv() throws IOException {
+        // given
+        given(transactionRepository.streamByTransactionAtBetween(any(), any()))
+                .willReturn(Stream.of(transaction(1L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        transactionExportService.export(LocalDateTime.now().minusDays(1),
+                LocalDateTime.now(), ExportFormat.CSV, outputStream);
+
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("0000000000001,1234567890,USE,SUCCESS,1000,9000,"));
+    }
+
+    @Test
+    void export_IncludesArchivedTransactionsFirst() throws IOException {
+        // given
+        LocalDateTime from = LocalDateTime.of(2024, 11, 15, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        given(transactionArchiveRepository.streamByTransactionAtBetween(
+                202411, 202502, from, to))
+                .willReturn(Stream.of(TransactionArchive.from(
+                        transaction(1L), LocalDateTime.now())));
+        given(transactionRepository.streamByTransactionAtBetween(from, to))
+                .willReturn(Stream.of(transaction(2L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        transactionExportService.export(from, to, ExportFormat.CSV, outputStream);
+
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("0000000000001,1234567890,USE,SUCCESS,1000,9000,"));
+        assertTrue(lines[2].startsWith("0000000000002,1234567890,"));
+    }
+
+    private Transaction transaction(long transactionId) {
+        return Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(mockAccount)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(transactionId)
+                .transactionAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdGeneratorTest {
+
+    private static final long NOW = TransactionIdGenerator.EPOCH_MILLIS + 86_400_000L;
+
+    @Test
+    void nextId_LayoutTimeNodeSequence() {
+        // given
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 5L);
+
+        // when
+        long first = generator.nextId(NOW);
+        long second = generator.nextId(NOW);
+
+        // then
+        assertEquals(86_400_000L, first >>> 22);
+        assertEquals(5L, (first >>> 12) & TransactionIdGenerator.MAX_NODE_ID);
+        assertEquals(0L, first & 0xFFF);
+        assertEquals(1L, second & 0xFFF);
+    }
+
+    @Test
+    void nextId_MonotonicWhenClockGoesBack() {
+        // given
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        long first = generator.nextId(NOW);
+
+        // when
+        long second = generator.nextId(NOW - 1000L);
+
+        // then
+        assertTrue(second > first);
+    }
+
+    @Test
+    void nextId_SequenceOverflowMovesToNextMillisecond() {
+        // given
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        long last = 0;
+
+        // when
+        for (int i = 0; i <= 4096; i++) {
+            long id = generator.nextId(NOW);
+            assertTrue(id > last);
+            last = id;
+        }
+
+        // then
+        assertEquals(86_400_001L, last >>> 22);
+        assertEquals(0L, last & 0xFFF);
+    }
+
+    @Test
+    void nextId_UniqueAcrossThreads() throws InterruptedException {
+        // given
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void init_NodeIdOutOfRange() {
+        // given
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 1024L);
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.account.service;
+
+import com.example.account.dto.AccountDTO;
+import com.example.account.dto.TransactionDTO;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 요청 하나가 실행하는 쿼리 수를 Hibernate 통계로 확인한다.
+ * 지연 로딩 연관관계가 의도치 않게 초기화되면 entityFetchCount 가 늘어난다.
+ */
+@SpringBootTest
+class TransactionQueryCountTest {
+
+    private static final long USER_ID = 5L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountCacheService accountCacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void accountSummary_SingleProjectionQuery() {
+        // given
+        AccountDTO account = accountService.createAccount(USER_ID, 10000L);
+        statistics.clear();
+
+        // when
+        accountCacheService.get(account.getAccountNumber());
+
+        // then
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void useBalance_LoadsOnlyAccount() {
+        // given
+        AccountDTO account = accountService.createAccount(USER_ID, 10000L);
+        accountCacheService.get(account.getAccountNumber());
+        statistics.clear();
+
+        // when
+        transactionService.useBalance(USER_ID, account.getAccountNumber(), 1000L);
+
+        // then
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        // 거래 내역 + 분개
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void queryTransaction_FetchesAccountInSameQuery() {
+        // given
+        AccountDTO account = accountService.createAccount(USER_ID, 10000L);
+        TransactionDTO used = transactionService.useBalance(
+                USER_ID, account.getAccountNumber(), 1000L);
+        statistics.clear();
+
+        // when
+        TransactionDTO transactionDTO = transactionService.queryTransaction(
+                used.getTransactionId());
+
+        // then
+        assertEquals(account.getAccountNumber(), transactionDTO.getAccountNumber());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+}
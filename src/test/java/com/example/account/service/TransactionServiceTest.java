@@ -3,28 +3,54 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.domain.TransactionArchive;
+import com.example.account.dto.AccountBalance;
+import com.example.account.dto.AccountSummary;
+import com.example.account.dto.BatchTransaction;
+import com.example.account.dto.FailedTransaction;
+import com.example.account.dto.TransactionCursor;
 import com.example.account.dto.TransactionDTO;
+import com.example.account.dto.TransactionHistoryDTO;
+import com.example.account.dto.TransactionIds;
 import com.example.account.exception.AccountException;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionArchiveRepository;
 import com.example.account.repository.TransactionRepository;
+import com.example.account.shard.ShardRouter;
 import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +60,9 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
     @Mock
     private AccountUserRepository accountUserRepository;
 
@@ -43,6 +72,27 @@ class TransactionServiceTest {
     @Mock
     private ValidService validService;
 
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private AccountCacheService accountCacheService;
+
+    @Mock
+    private JournalService journalService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator();
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -71,7 +121,7 @@ class TransactionServiceTest {
                 .account(mockAccount)
                 .amount(1000L)
                 .balanceSnapshot(mockAccount.getBalance() - 1000L)
-                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .transactionId(new TransactionIdGenerator().nextId())
                 .transactionAt(LocalDateTime.now())
                 .build();
     }
@@ -83,7 +133,8 @@ class TransactionServiceTest {
         long amount = 1000L;
         String accountNumber = "1234567890";
 
-        given(accountUserRepository.findById(userId)).willReturn(Optional.of(mockAccountUser));
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(AccountSummary.fromEntity(mockAccount)));
         given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
         given(transactionRepository.save(any(Transaction.class))).willReturn(mockTransaction);
 
@@ -94,7 +145,8 @@ class TransactionServiceTest {
         assertNotNull(transactionDTO);
         assertEquals(TransactionResultType.SUCCESS, transactionDTO.getTransactionResultType());
         assertEquals(9000, mockAccount.getBalance());
-        verify(validService, times(1)).validateUseBalance(mockAccountUser, mockAccount, amount);
+        verify(accountUserRepository, never()).findById(anyLong());
+        verify(validService, times(1)).validateUseBalance(userId, mockAccount, amount);
     }
 
     @Test
@@ -104,41 +156,143 @@ class TransactionServiceTest {
         String accountNumber = "1234567890";
         long amount = 1000L;
 
-        given(accountUserRepository.findById(userId)).willReturn(Optional.empty());
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(new AccountSummary(1L, 2L, AccountStatus.IN_USE)));
+        given(accountUserRepository.existsById(userId)).willReturn(false);
 
         // when
         AccountException exception = assertThrows(AccountException.class,
                 () -> transactionService.useBalance(userId, accountNumber, amount));
 
         // then
+        assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
         verify(accountRepository, never()).findByAccountNumber(anyString());
     }
 
     @Test
-    void saveFailedUseTransaction_Success() {
+    void useBalance_AccountNotFound() {
+        // given
+        given(accountCacheService.get("1234567890")).willReturn(Optional.empty());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+    }
+
+    @Test
+    void useBalanceAtomically_Success() {
         // given
         String accountNumber = "1234567890";
-        long amount = 1000L;
 
-        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        given(accountRepository.debit(eq(accountNumber), eq(1L),
+                eq(AccountStatus.IN_USE), eq(1000L), any())).willReturn(1);
+        given(accountRepository.findBalanceByAccountNumber(accountNumber))
+                .willReturn(Optional.of(new AccountBalance(10L, 1L, AccountStatus.IN_USE, 9000L, 3L)));
+        given(accountRepository.getById(10L)).willReturn(mockAccount);
+        given(transactionRepository.save(any(Transaction.class)))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        TransactionDTO transactionDTO =
+                transactionService.useBalanceAtomically(1L, accountNumber, 1000L);
+
+        // then
+        assertEquals(TransactionResultType.SUCCESS, transactionDTO.getTransactionResultType());
+        assertEquals(9000L, transactionDTO.getBalanceSnapshot());
+        assertEquals(accountNumber, transactionDTO.getAccountNumber());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(lockService, never()).lock(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void useBalanceAtomically_AmountExceedBalance() {
+        // given
+        String accountNumber = "1234567890";
+
+        given(accountRepository.debit(eq(accountNumber), eq(1L),
+                eq(AccountStatus.IN_USE), eq(1000L), any())).willReturn(0);
+        given(accountRepository.findBalanceByAccountNumber(accountNumber))
+                .willReturn(Optional.of(new AccountBalance(10L, 1L, AccountStatus.IN_USE, 500L, 2L)));
+        doThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE))
+                .when(validService)
+                .validateUseBalance(1L, 1L, AccountStatus.IN_USE, 500L, 1000L);
 
         // when
-        transactionService.saveFailedUseTransaction(accountNumber, amount);
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalanceAtomically(1L, accountNumber, 1000L));
 
         // then
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    void useBalanceAtomically_UserAccountUnMatch() {
+        // given
+        String accountNumber = "1234567890";
+
+        given(accountRepository.debit(eq(accountNumber), eq(2L),
+                eq(AccountStatus.IN_USE), eq(1000L), any())).willReturn(0);
+        given(accountRepository.findBalanceByAccountNumber(accountNumber))
+                .willReturn(Optional.of(new AccountBalance(10L, 1L, AccountStatus.IN_USE, 5000L, 2L)));
+        given(accountUserRepository.existsById(2L)).willReturn(true);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalanceAtomically(2L, accountNumber, 1000L));
+
+        // then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveFailedTransactions_SkipUnknownAccount() {
+        // given
+        given(accountRepository.findByAccountNumberIn(any()))
+                .willReturn(Collections.singletonList(mockAccount));
+
+        List<FailedTransaction> failedTransactions = Arrays.asList(
+                FailedTransaction.builder()
+                        .transactionType(TransactionType.USE)
+                        .accountNumber("1234567890")
+                        .amount(1000L)
+                        .failedAt(LocalDateTime.now())
+                        .build(),
+                FailedTransaction.builder()
+                        .transactionType(TransactionType.CANCEL)
+                        .accountNumber("0000000000")
+                        .amount(1000L)
+                        .failedAt(LocalDateTime.now())
+                        .build());
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        transactionService.saveFailedTransactions(failedTransactions);
+
+        // then
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(TransactionResultType.FAIL, captor.getValue().get(0).getTransactionResultType());
     }
 
     @Test
     void cancelBalance_Success() {
         // given
-        String transactionId = "transactionId";
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
         String accountNumber = "1234567890";
         long amount = 1000L;
 
-        given(transactionRepository.findByTransactionId(transactionId)).willReturn(Optional.of(mockTransaction));
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.of(mockTransaction));
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(AccountSummary.fromEntity(mockAccount)));
         given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
-        given(transactionRepository.save(any(Transaction.class))).willReturn(mockTransaction);
+        given(transactionRepository.saveAndFlush(any(Transaction.class))).willReturn(mockTransaction);
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
 
         // when
         TransactionDTO transactionDTO = transactionService.cancelBalance(transactionId, accountNumber, amount);
@@ -146,17 +300,64 @@ class TransactionServiceTest {
         // then
         assertNotNull(transactionDTO);
         assertEquals(TransactionResultType.SUCCESS, transactionDTO.getTransactionResultType());
-        verify(validService, times(1)).validateCancelBalance(mockTransaction, mockAccount, amount);
+        verify(validService, times(1)).validateCancelBalance(mockTransaction, mockAccount.getId(), amount);
+        verify(transactionRepository, times(1)).saveAndFlush(captor.capture());
+        assertEquals(mockTransaction.getTransactionId(),
+                captor.getValue().getCancelledTransactionId());
+    }
+
+    @Test
+    void cancelBalance_AlreadyCancelled() {
+        // given
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
+        String accountNumber = "1234567890";
+        long amount = 1000L;
+
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.of(mockTransaction));
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(AccountSummary.fromEntity(mockAccount)));
+        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        given(transactionRepository.saveAndFlush(any(Transaction.class)))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_cancelled_transaction_id"));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance(transactionId, accountNumber, amount));
+
+        // then
+        assertEquals(ErrorCode.TRANSACTION_ALREADY_CANCELLED, exception.getErrorCode());
+        verify(journalService, never()).record(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void cancelBalance_OtherConstraintViolation_Rethrown() {
+        // given
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
+        String accountNumber = "1234567890";
+        long amount = 1000L;
+
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.of(mockTransaction));
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(AccountSummary.fromEntity(mockAccount)));
+        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        given(transactionRepository.saveAndFlush(any(Transaction.class)))
+                .willThrow(new DataIntegrityViolationException("uk_transaction_transaction_id"));
+
+        // when
+        // then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> transactionService.cancelBalance(transactionId, accountNumber, amount));
+        verify(journalService, never()).record(any(), any(), anyLong(), any());
     }
 
     @Test
     void cancelBalance_TransactionNotFound() {
         // given
-        String transactionId = "transactionId";
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
         String accountNumber = "1234567890";
         long amount = 1000L;
 
-        given(transactionRepository.findByTransactionId(transactionId)).willReturn(Optional.empty());
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.empty());
 
         // when
         AccountException exception = assertThrows(AccountException.class,
@@ -166,18 +367,259 @@ class TransactionServiceTest {
         verify(accountRepository, never()).findByAccountNumber(anyString());
     }
 
+    @Test
+    void cancelBalance_LegacyTransactionId() {
+        // given
+        String legacyTransactionId = "b030d94e8657429a8d6b9b550f923ac5";
+        String accountNumber = "1234567890";
+        long amount = 1000L;
+
+        given(transactionRepository.findByLegacyTransactionId(legacyTransactionId))
+                .willReturn(Optional.of(mockTransaction));
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.of(mockTransaction));
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(AccountSummary.fromEntity(mockAccount)));
+        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        given(transactionRepository.saveAndFlush(any(Transaction.class))).willReturn(mockTransaction);
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        // when
+        transactionService.cancelBalance(legacyTransactionId, accountNumber, amount);
+
+        // then
+        verify(transactionRepository, times(1)).saveAndFlush(captor.capture());
+        assertEquals(mockTransaction.getTransactionId(),
+                captor.getValue().getCancelledTransactionId());
+    }
+
+    @Test
+    void cancelBalance_ArchivedTransaction_TooOld() {
+        // given
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
+
+        given(transactionRepository.findByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.empty());
+        given(transactionArchiveRepository.existsByTransactionId(mockTransaction.getTransactionId())).willReturn(true);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance(transactionId, "1234567890", 1000L));
+
+        // then
+        assertEquals(ErrorCode.TOO_OLD_OLDER_TO_CANCEL, exception.getErrorCode());
+    }
+
     @Test
     void queryTransaction_Success() {
         // given
-        String transactionId = "transactionId";
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
 
-        given(transactionRepository.findByTransactionId(transactionId)).willReturn(Optional.of(mockTransaction));
+        given(transactionRepository.findWithAccountByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.of(mockTransaction));
 
         // when
         TransactionDTO transactionDTO = transactionService.queryTransaction(transactionId);
 
         // then
         assertNotNull(transactionDTO);
-        assertEquals(mockTransaction.getTransactionId(), transactionDTO.getTransactionId());
+        assertEquals(transactionId, transactionDTO.getTransactionId());
+        verify(transactionArchiveRepository, never()).findByTransactionId(anyLong());
+    }
+
+    @Test
+    void queryTransaction_FromArchive() {
+        // given
+        String transactionId = TransactionIds.format(mockTransaction.getTransactionId());
+
+        given(transactionRepository.findWithAccountByTransactionId(mockTransaction.getTransactionId())).willReturn(Optional.empty());
+        given(transactionArchiveRepository.findByTransactionId(mockTransaction.getTransactionId()))
+                .willReturn(Optional.of(TransactionArchive.from(mockTransaction, LocalDateTime.now())));
+
+        // when
+        TransactionDTO transactionDTO = transactionService.queryTransaction(transactionId);
+
+        // then
+        assertEquals(transactionId, transactionDTO.getTransactionId());
+        assertEquals("1234567890", transactionDTO.getAccountNumber());
+    }
+
+    @Test
+    void queryTransaction_LegacyTransactionId() {
+        // given
+        String legacyTransactionId = "b030d94e8657429a8d6b9b550f923ac5";
+
+        given(transactionRepository.findWithAccountByLegacyTransactionId(legacyTransactionId))
+                .willReturn(Optional.of(mockTransaction));
+
+        // when
+        TransactionDTO transactionDTO = transactionService.queryTransaction(legacyTransactionId);
+
+        // then
+        assertEquals(TransactionIds.format(mockTransaction.getTransactionId()),
+                transactionDTO.getTransactionId());
+        verify(transactionRepository, never()).findWithAccountByTransactionId(anyLong());
+    }
+
+    @Test
+    void queryTransactionHistory_HasNextPage() {
+        // given
+        String accountNumber = "1234567890";
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = Arrays.asList(
+                historyTransaction(3L, now),
+                historyTransaction(2L, now.minusSeconds(1)),
+                historyTransaction(1L, now.minusSeconds(2)));
+
+        given(accountCacheService.get(accountNumber))
+                .willReturn(Optional.of(new AccountSummary(10L, 1L, AccountStatus.IN_USE)));
+        given(transactionRepository.findHistory(eq(10L), isNull(), isNull(),
+                any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .willReturn(transactions);
+
+        // when
+        TransactionHistoryDTO history = transactionService.queryTransactionHistory(
+                accountNumber, null, 2, null, null);
+
+        // then
+        assertEquals(2, history.getTransactions().size());
+        TransactionCursor next = TransactionCursor.decode(history.getNextCursor());
+        assertEquals(2L, next.getId());
+        assertEquals(now.minusSeconds(1), next.getTransactionAt());
+    }
+
+    private Transaction historyTransaction(long id, LocalDateTime transactionAt) {
+        Transaction transaction = Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.SUCCESS)
+                .account(mockAccount)
+                .amount(1000L)
+                .transactionId(id)
+                .transactionAt(transactionAt)
+                .build();
+        transaction.setId(id);
+        return transaction;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchTransaction_PartialFailure() {
+        // given
+        String accountNumber = "1234567890";
+        Lock lock = mock(Lock.class);
+
+        given(lockService.lock(accountNumber, -1L, -1L)).willReturn(lock);
+        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE))
+                .when(validService).validateUseBalance(1L, 1L, AccountStatus.IN_USE, 4000L, 6000L);
+
+        List<BatchTransaction.Item> items = Arrays.asList(
+                BatchTransaction.Item.builder()
+                        .transactionType(TransactionType.USE)
+                        .userId(1L)
+                        .accountNumber(accountNumber)
+                        .amount(6000L)
+                        .build(),
+                BatchTransaction.Item.builder()
+                        .transactionType(TransactionType.USE)
+                        .userId(1L)
+                        .accountNumber(accountNumber)
+                        .amount(6000L)
+                        .build());
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        List<BatchTransaction.Result> results = transactionService.batchTransaction(items);
+
+        // then
+        assertEquals(TransactionResultType.SUCCESS, results.get(0).getTransactionResult());
+        assertEquals(TransactionResultType.FAIL, results.get(1).getTransactionResult());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, results.get(1).getErrorCode());
+        assertEquals(4000L, mockAccount.getBalance());
+        verify(lockService, times(1)).lock(accountNumber, -1L, -1L);
+        verify(lockService, times(1)).unlock(lock);
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    void batchTransaction_OptimisticLockConflict_Retried() {
+        // given
+        String accountNumber = "1234567890";
+        Lock lock = mock(Lock.class);
+        ReflectionTestUtils.setField(transactionService, "batchMaxAttempts", 3);
+
+        given(lockService.lock(accountNumber, -1L, -1L)).willReturn(lock);
+        given(accountRepository.findByAccountNumber(accountNumber)).willReturn(Optional.of(mockAccount));
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                    return null;
+                }).when(transactionTemplate).executeWithoutResult(any());
+
+        List<BatchTransaction.Item> items = Collections.singletonList(
+                BatchTransaction.Item.builder()
+                        .transactionType(TransactionType.USE)
+                        .userId(1L)
+                        .accountNumber(accountNumber)
+                        .amount(1000L)
+                        .build());
+
+        // when
+        List<BatchTransaction.Result> results = transactionService.batchTransaction(items);
+
+        // then
+        assertEquals(TransactionResultType.SUCCESS, results.get(0).getTransactionResult());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(lockService, times(1)).unlock(lock);
+    }
+
+    @Test
+    void batchTransaction_OptimisticLockConflict_MarksGroupFailed() {
+        // given
+        String accountNumber = "1234567890";
+        String otherAccountNumber = "1234567891";
+        Account otherAccount = Account.builder()
+                .accountUser(mockAccountUser)
+                .accountNumber(otherAccountNumber)
+                .balance(10000L)
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+        Lock lock = mock(Lock.class);
+        ReflectionTestUtils.setField(transactionService, "batchMaxAttempts", 2);
+
+        given(lockService.lock(anyString(), eq(-1L), eq(-1L))).willReturn(lock);
+        given(accountRepository.findByAccountNumber(otherAccountNumber)).willReturn(Optional.of(otherAccount));
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .doAnswer(invocation -> {
+                    invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                    return null;
+                }).when(transactionTemplate).executeWithoutResult(any());
+
+        List<BatchTransaction.Item> items = Arrays.asList(
+                BatchTransaction.Item.builder()
+                        .transactionType(TransactionType.USE)
+                        .userId(1L)
+                        .accountNumber(accountNumber)
+                        .amount(1000L)
+                        .build(),
+                BatchTransaction.Item.builder()
+                        .transactionType(TransactionType.USE)
+                        .userId(1L)
+                        .accountNumber(otherAccountNumber)
+                        .amount(1000L)
+                        .build());
+
+        // when
+        List<BatchTransaction.Result> results = transactionService.batchTransaction(items);
+
+        // then
+        assertEquals(TransactionResultType.FAIL, results.get(0).getTransactionResult());
+        assertEquals(ErrorCode.ACCOUNT_CONCURRENT_UPDATE, results.get(0).getErrorCode());
+        assertEquals(TransactionResultType.SUCCESS, results.get(1).getTransactionResult());
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(lockService, times(2)).unlock(lock);
     }
 }
@@ -0,0 +1,144 @@
+package com.example.account.shard;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private static final int ACCOUNTS = 100_000;
+
+    @Test
+    void resolve_SameAccountSameShard() {
+        // given
+        ShardRouter router = new ShardRouter(4);
+        ShardRouter restarted = new ShardRouter(4);
+
+        // when
+        // then
+        for (int i = 0; i < 1000; i++) {
+            String accountNumber = accountNumber(i);
+            assertEquals(router.resolve(accountNumber), router.resolve(accountNumber));
+            assertEquals(router.resolve(accountNumber), restarted.resolve(accountNumber));
+        }
+    }
+
+    @Test
+    void resolve_EvenlyDistributed() {
+        // given
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+
+        // when
+        for (int i = 0; i < ACCOUNTS; i++) {
+            counts[router.resolve(accountNumber(i))]++;
+        }
+
+        // then
+        for (int count : counts) {
+            assertTrue(Math.abs(count - ACCOUNTS / 4) < ACCOUNTS / 4 * 0.15,
+                    "shard count " + count);
+        }
+    }
+
+    @Test
+    void resolve_AddShardMovesOnlyItsShare() {
+        // given
+        ShardRouter before = new ShardRouter(4);
+        ShardRouter after = new ShardRouter(5);
+        int moved = 0;
+
+        // when
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = accountNumber(i);
+            int from = before.resolve(accountNumber);
+            int to = after.resolve(accountNumber);
+
+            if (from != to) {
+                // 옮겨지는 계좌는 모두 새 샤드로만 간다
+                assertEquals(4, to);
+                moved++;
+            }
+        }
+
+        // then
+        // 약 1/5 만 옮겨진다
+        double ratio = (double) moved / ACCOUNTS;
+        assertTrue(ratio > 0.15 && ratio < 0.25, "moved ratio " + ratio);
+    }
+
+    @Test
+    void fanOut_ResultsInShardOrder() {
+        // given
+        ShardRouter router = new ShardRouter(3);
+
+        // when
+        List<Integer> shards = router.fanOut(shard -> ShardContext.current());
+
+        // then
+        assertEquals(List.of(0, 1, 2), shards);
+        assertNull(ShardContext.current());
+        router.shutdown();
+    }
+
+    @Test
+    void fanOut_ShardZeroOnCallerThread() {
+        // given
+        ShardRouter router = new ShardRouter(3);
+        Thread caller = Thread.currentThread();
+
+        // when
+        List<Boolean> onCaller = router.fanOut(shard -> Thread.currentThread() == caller);
+
+        // then
+        assertEquals(List.of(true, false, false), onCaller);
+        router.shutdown();
+    }
+
+    @Test
+    void fanOut_Timeout() {
+        // given
+        ShardRouter router = new ShardRouter(2, 1, 1, 50L);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> router.fanOut(shard -> {
+                    if (shard == 1) {
+                        try {
+                            Thread.sleep(1000L);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return shard;
+                }));
+
+        // then
+        assertEquals(ErrorCode.SHARD_QUERY_TIMEOUT, exception.getErrorCode());
+        router.shutdown();
+    }
+
+    @Test
+    void call_RestoresPreviousShard() {
+        // given
+        ShardRouter router = new ShardRouter(2);
+        Integer previous = ShardContext.enter(1);
+
+        // when
+        int shard = router.call(accountNumber(1), ShardContext::current);
+
+        // then
+        assertEquals(router.resolve(accountNumber(1)), shard);
+        assertEquals(1, ShardContext.current());
+        ShardContext.restore(previous);
+        router.shutdown();
+    }
+
+    private static String accountNumber(int i) {
+        return String.format("%010d", 1_000_000_000L + i * 7_919L);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.account.shard;
+
+import com.example.account.dto.AccountDTO;
+import com.example.account.dto.AccountInfo;
+import com.example.account.exception.AccountException;
+import com.example.account.service.AccountService;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 두 개의 H2 DB 를 샤드로 두고 계좌가 나뉘어 저장되는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "account.shard.enabled=true",
+        "account.shard.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "account.shard.replicate-schema=true",
+        "spring.redis.port=6380"
+})
+class ShardingIntegrationTest {
+
+    private static final long USER_ID = 3L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void createAccount_SpreadAcrossShards() {
+        // given
+        List<AccountDTO> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(accountService.createAccount(USER_ID, 0L));
+        }
+
+        // when
+        List<String> found = accountService.getAccount(USER_ID).stream()
+                .map(AccountInfo::getAccountNumber)
+                .collect(Collectors.toList());
+
+        // then
+        List<DataSource> shards = ((ShardRoutingDataSource)
+                ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource())
+                .getShards();
+        assertEquals(2, shards.size());
+
+        for (AccountDTO account : created) {
+            assertTrue(found.contains(account.getAccountNumber()));
+
+            int shard = shardRouter.resolve(account.getAccountNumber());
+            Integer stored = new JdbcTemplate(shards.get(shard)).queryForObject(
+                    "select count(*) from account where account_number = ?",
+                    Integer.class, account.getAccountNumber());
+            assertEquals(1, stored);
+        }
+
+        // 계좌 수 제한은 모든 샤드의 계좌를 합쳐서 센다
+        AccountException exception = assertThrows(AccountException.class,
+                () -> accountService.createAccount(USER_ID, 0L));
+        assertEquals(ErrorCode.MAX_ACCOUNT_PER_USER_10, exception.getErrorCode());
+    }
+}